@@ -0,0 +1,18 @@
+package ru.practicum.common;
+
+import lombok.experimental.UtilityClass;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@UtilityClass
+public class VirtualThreads {
+
+    public ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer, running on "
+                    + Runtime.version() + ".", e);
+        }
+    }
+}
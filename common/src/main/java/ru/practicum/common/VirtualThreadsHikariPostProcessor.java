@@ -0,0 +1,37 @@
+package ru.practicum.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsHikariPostProcessor implements BeanPostProcessor {
+
+    private final int maximumPoolSize;
+    private final long connectionTimeoutMs;
+
+    public VirtualThreadsHikariPostProcessor(
+            @Value("${virtual-threads.datasource.maximum-pool-size}") int maximumPoolSize,
+            @Value("${virtual-threads.datasource.connection-timeout-ms}") long connectionTimeoutMs) {
+        this.maximumPoolSize = maximumPoolSize;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setMinimumIdle(maximumPoolSize);
+            dataSource.setConnectionTimeout(connectionTimeoutMs);
+            log.info("VirtualThreadsHikariPostProcessor: pool of {} connections, {} ms acquire timeout.",
+                    maximumPoolSize, connectionTimeoutMs);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsTomcatCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private ExecutorService executor;
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        ExecutorService requestExecutor = VirtualThreads.newExecutor();
+        executor = requestExecutor;
+        factory.addProtocolHandlerCustomizers(protocolHandler -> protocolHandler.setExecutor(requestExecutor));
+        log.info("VirtualThreadsTomcatCustomizer: requests run on virtual threads.");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            log.info("VirtualThreadsTomcatCustomizer: shutdown.");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+#!/usr/bin/env python3
+import argparse
+import json
+import threading
+import time
+import urllib.error
+import urllib.request
+
+
+def payload(batch, offset, index):
+    hits = [{"app": "ewm-main-service",
+             "uri": "/events/{}".format((index * batch + i) % 1000),
+             "ip": "10.{}.{}.{}".format(offset % 256, index % 256, i % 256),
+             "timestamp": time.strftime("%Y-%m-%d %H:%M:%S")}
+            for i in range(batch)]
+    if batch == 1:
+        return json.dumps(hits[0]).encode(), "application/json"
+    return "\n".join(json.dumps(hit) for hit in hits).encode(), "application/x-ndjson"
+
+
+def worker(base, batch, deadline, latencies, errors, lock, offset):
+    path = "/hit" if batch == 1 else "/hit/batch"
+    index = 0
+    while time.monotonic() < deadline:
+        body, content_type = payload(batch, offset, index)
+        index += 1
+        request = urllib.request.Request(base + path, data=body, headers={"Content-Type": content_type})
+        started = time.monotonic()
+        try:
+            with urllib.request.urlopen(request, timeout=30) as response:
+                response.read()
+            failed = False
+        except (urllib.error.URLError, OSError):
+            failed = True
+        elapsed = time.monotonic() - started
+        with lock:
+            if failed:
+                errors.append(elapsed)
+            else:
+                latencies.append(elapsed)
+
+
+def percentile(values, share):
+    if not values:
+        return 0.0
+    return values[min(len(values) - 1, int(len(values) * share))]
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Closed-loop hit ingestion generator for stat-service.")
+    parser.add_argument("--base", default="http://localhost:9090")
+    parser.add_argument("--batch", type=int, default=1, help="hits per request; 1 posts to /hit")
+    parser.add_argument("--concurrency", type=int, default=16)
+    parser.add_argument("--duration", type=int, default=60, help="seconds")
+    parser.add_argument("--label", default="run")
+    args = parser.parse_args()
+
+    latencies, errors, lock = [], [], threading.Lock()
+    deadline = time.monotonic() + args.duration
+    threads = [threading.Thread(target=worker,
+                                args=(args.base, args.batch, deadline, latencies, errors, lock, i), daemon=True)
+               for i in range(args.concurrency)]
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+
+    latencies.sort()
+    print("label={} batch={} concurrency={} duration={}s requests={} errors={} hits={:.1f}/s "
+          "p50={:.1f}ms p95={:.1f}ms p99={:.1f}ms max={:.1f}ms".format(
+              args.label, args.batch, args.concurrency, args.duration, len(latencies), len(errors),
+              len(latencies) * args.batch / args.duration,
+              percentile(latencies, 0.50) * 1000, percentile(latencies, 0.95) * 1000,
+              percentile(latencies, 0.99) * 1000, (latencies[-1] if latencies else 0) * 1000))
+
+
+if __name__ == "__main__":
+    main()
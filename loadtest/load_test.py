@@ -0,0 +1,66 @@
+#!/usr/bin/env python3
+import argparse
+import threading
+import time
+import urllib.error
+import urllib.request
+
+
+def worker(urls, deadline, latencies, errors, lock, offset):
+    index = offset
+    while time.monotonic() < deadline:
+        url = urls[index % len(urls)]
+        index += 1
+        started = time.monotonic()
+        try:
+            with urllib.request.urlopen(url, timeout=30) as response:
+                response.read()
+            failed = False
+        except (urllib.error.URLError, OSError):
+            failed = True
+        elapsed = time.monotonic() - started
+        with lock:
+            if failed:
+                errors.append(elapsed)
+            else:
+                latencies.append(elapsed)
+
+
+def percentile(values, share):
+    if not values:
+        return 0.0
+    return values[min(len(values) - 1, int(len(values) * share))]
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Closed-loop HTTP load generator for explore-with-me.")
+    parser.add_argument("--base", default="http://localhost:8080")
+    parser.add_argument("--path", action="append", dest="paths",
+                        help="request path, repeatable; defaults to public event and compilation reads")
+    parser.add_argument("--concurrency", type=int, default=200)
+    parser.add_argument("--duration", type=int, default=60, help="seconds")
+    parser.add_argument("--label", default="run")
+    args = parser.parse_args()
+
+    paths = args.paths or ["/events?paid=false&size=20", "/compilations?size=10", "/categories"]
+    urls = [args.base + path for path in paths]
+    latencies, errors, lock = [], [], threading.Lock()
+    deadline = time.monotonic() + args.duration
+    threads = [threading.Thread(target=worker, args=(urls, deadline, latencies, errors, lock, i), daemon=True)
+               for i in range(args.concurrency)]
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+
+    latencies.sort()
+    print("label={} concurrency={} duration={}s requests={} errors={} throughput={:.1f}/s "
+          "p50={:.1f}ms p95={:.1f}ms p99={:.1f}ms max={:.1f}ms".format(
+              args.label, args.concurrency, args.duration, len(latencies), len(errors),
+              len(latencies) / args.duration,
+              percentile(latencies, 0.50) * 1000, percentile(latencies, 0.95) * 1000,
+              percentile(latencies, 0.99) * 1000, (latencies[-1] if latencies else 0) * 1000))
+
+
+if __name__ == "__main__":
+    main()
@@ -4,8 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.service.CategoryService;
+import ru.practicum.util.ResponseCache;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
@@ -17,13 +19,16 @@ import java.util.List;
 @Slf4j
 public class CategoryPublicController {
     private final CategoryService categoryService;
+    private final ResponseCache responseCache;
 
     @GetMapping
     public List<CategoryDto> getAll(@PositiveOrZero @RequestParam(value = "from", defaultValue = "0") int from,
-                                    @Positive @RequestParam(value = "size", defaultValue = "10") int size) {
+                                    @Positive @RequestParam(value = "size", defaultValue = "10") int size,
+                                    ServletWebRequest webRequest) {
         log.info("CategoryPublicController: getAllAdmin.");
 
-        return categoryService.getAll(from, size);
+        return responseCache.get(ResponseCache.CATEGORIES + from + ":" + size, webRequest,
+                () -> categoryService.getAll(from, size));
     }
 
     @GetMapping("/{id}")
@@ -2,6 +2,7 @@ package ru.practicum.category.service;
 
 import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.dto.NewCategoryDto;
+import java.util.Collection;
 import java.util.List;
 
 public interface CategoryService {
@@ -10,6 +11,8 @@ public interface CategoryService {
 
     CategoryDto getById(long categoryId);
 
+    boolean existsAllById(Collection<Long> categoryIds);
+
     CategoryDto update(CategoryDto categoryDto);
 
     CategoryDto create(NewCategoryDto newCategoryDto);
@@ -1,7 +1,11 @@
 package ru.practicum.category.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -10,17 +14,42 @@ import ru.practicum.category.dto.CategoryMapper;
 import ru.practicum.category.dto.NewCategoryDto;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.storage.CategoryRepository;
+import ru.practicum.compilation.storage.CompilationSnapshotRepository;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.util.AfterCommit;
 import ru.practicum.util.PageableRequest;
+import ru.practicum.util.ResponseCache;
 import javax.transaction.Transactional;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final Cache<Long, CategoryDto> categories;
+    private final CompilationSnapshotRepository snapshotRepository;
+    private final ResponseCache responseCache;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository,
+                               CompilationSnapshotRepository snapshotRepository,
+                               ResponseCache responseCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${ewm.cache.categories.maximum-size}") long maximumSize,
+                               @Value("${ewm.cache.categories.expire-after-ms}") long expireAfterMs) {
+        this.categoryRepository = categoryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.responseCache = responseCache;
+        this.categories = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, categories, "categories");
+    }
 
     @Override
     public List<CategoryDto> getAll(int from, int size) {
@@ -34,10 +63,20 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public CategoryDto getById(long categoryId) {
-        Category category = getByIdAndThrow(categoryId);
         log.info("CategoryService: getById. CategoryId {}.", categoryId);
 
-        return CategoryMapper.toCategoryDto(category);
+        return categories.get(categoryId, id -> CategoryMapper.toCategoryDto(getByIdAndThrow(id)));
+    }
+
+    @Override
+    public boolean existsAllById(Collection<Long> categoryIds) {
+        Set<Long> ids = Set.copyOf(categoryIds);
+        log.info("CategoryService: existsAllById. CategoryIds {}.", ids);
+        if (categories.getAllPresent(ids).size() == ids.size()) {
+            return true;
+        }
+
+        return categoryRepository.countByIdIn(ids) == ids.size();
     }
 
     @Override
@@ -45,6 +84,9 @@ public class CategoryServiceImpl implements CategoryService {
     public CategoryDto update(CategoryDto categoryDto) {
         Category category = getByIdAndThrow(categoryDto.getId());
         category.setName(categoryDto.getName());
+        AfterCommit.run(() -> categories.invalidate(category.getId()));
+        snapshotRepository.invalidateAll();
+        responseCache.invalidate(ResponseCache.CATEGORIES, ResponseCache.EVENTS, ResponseCache.COMPILATIONS);
         log.info("CategoryService: updateAdmin.");
 
         return CategoryMapper.toCategoryDto(category);
@@ -54,6 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Transactional
     public CategoryDto create(NewCategoryDto newCategoryDto) {
         Category category = categoryRepository.save(CategoryMapper.fromNewCategoryDto(newCategoryDto));
+        responseCache.invalidate(ResponseCache.CATEGORIES);
         log.info("CategoryService: create.");
 
         return CategoryMapper.toCategoryDto(category);
@@ -64,6 +107,8 @@ public class CategoryServiceImpl implements CategoryService {
     public void delete(long categoryId) {
         getById(categoryId);
         categoryRepository.deleteById(categoryId);
+        AfterCommit.run(() -> categories.invalidate(categoryId));
+        responseCache.invalidate(ResponseCache.CATEGORIES);
         log.info("CategoryService: delete. CategoryId {}.", categoryId);
     }
 
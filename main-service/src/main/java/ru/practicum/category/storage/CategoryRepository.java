@@ -3,8 +3,10 @@ package ru.practicum.category.storage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.category.model.Category;
+import java.util.Collection;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    long countByIdIn(Collection<Long> ids);
 }
@@ -9,6 +9,7 @@ import ru.practicum.comments.dto.CommentDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
 import ru.practicum.comments.service.CommentsService;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -41,10 +42,12 @@ public class CommentPrivateController {
     @GetMapping
     public List<CommentDto> getAllPrivate(@PathVariable long userId,
                                           @PositiveOrZero @RequestParam(value = "from", defaultValue = "0") int from,
-                                          @Positive @RequestParam(value = "size", defaultValue = "10") int size) {
+                                          @Positive @RequestParam(value = "size", defaultValue = "10") int size,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          HttpServletResponse response) {
         log.info("CommentPrivateController: getAllPrivate.");
 
-        return commentService.getAllPrivate(userId, PageRequest.of(from / size, size));
+        return commentService.getAllPrivate(userId, cursor, PageRequest.of(from / size, size)).writeTo(response);
     }
 
     @PatchMapping("/{commentId}")
@@ -4,6 +4,7 @@ import org.springframework.data.domain.Pageable;
 import ru.practicum.comments.dto.CommentDto;
 import ru.practicum.comments.dto.NewCommentDto;
 import ru.practicum.comments.dto.UpdateCommentDto;
+import ru.practicum.util.CursorPage;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -13,7 +14,7 @@ public interface CommentsService {
 
     List<CommentDto> getAllByEventId(long eventId);
 
-    List<CommentDto> getAllPrivate(long userId, Pageable pageable);
+    CursorPage<CommentDto> getAllPrivate(long userId, String cursor, Pageable pageable);
 
     CommentDto getByIdPrivate(long userId, long commentId);
 
@@ -2,7 +2,9 @@ package ru.practicum.comments.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.comments.dto.CommentDto;
@@ -18,6 +20,8 @@ import ru.practicum.exception.NotFoundException;
 import ru.practicum.user.model.User;
 import ru.practicum.user.service.UserService;
 import ru.practicum.util.Constant;
+import ru.practicum.util.CursorPage;
+import ru.practicum.util.PageCursor;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -54,11 +58,17 @@ public class CommentsServiceImpl implements CommentsService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CommentDto> getAllPrivate(long userId, Pageable pageable) {
-        List<Comment> comments = commentRepository.findAllByUserId(userId, pageable);
+    public CursorPage<CommentDto> getAllPrivate(long userId, String cursor, Pageable pageable) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<Comment> comments = after == null
+                ? commentRepository.findAllByUserId(userId, pageable)
+                : commentRepository.findAllByUserIdAndIdGreaterThan(userId, after.getIdOrZero(),
+                        PageRequest.of(0, pageable.getPageSize(), Sort.by("id")));
         log.info("CommentsService: getAllPrivate.");
 
-        return comments.stream().map(commentMapper::fromComment).collect(Collectors.toList());
+        return CursorPage.of(comments, after, pageable.getPageSize(),
+                comment -> PageCursor.after(null, comment.getId()),
+                commentMapper::fromComment);
     }
 
     @Override
@@ -13,6 +13,8 @@ import java.util.Optional;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByUserId(Long userId, Pageable pageable);
 
+    List<Comment> findAllByUserIdAndIdGreaterThan(Long userId, Long id, Pageable pageable);
+
     @Query("SELECT e FROM Comment e " +
             " WHERE e.user.id IN :users " +
             " AND e.event.id IN :events " +
@@ -2,13 +2,16 @@ package ru.practicum.compilation.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import ru.practicum.compilation.dto.CompilationDto;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.util.CursorPage;
+import ru.practicum.util.ResponseCache;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.List;
 
 @RestController
 @RequestMapping("/compilations")
@@ -17,21 +20,29 @@ import java.util.List;
 @Slf4j
 public class CompilationPublicController {
     private final CompilationService compilationService;
+    private final ResponseCache responseCache;
 
-    @GetMapping
-    public List<CompilationDto> getAll(@RequestParam(value = "pinned", required = false) Boolean pinned,
-                                       @PositiveOrZero @RequestParam(value = "from", defaultValue = "0") int from,
-                                       @Positive @RequestParam(value = "size", defaultValue = "10") int size) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public String getAll(@RequestParam(value = "pinned", required = false) Boolean pinned,
+                         @PositiveOrZero @RequestParam(value = "from", defaultValue = "0") int from,
+                         @Positive @RequestParam(value = "size", defaultValue = "10") int size,
+                         @RequestParam(value = "cursor", required = false) String cursor,
+                         HttpServletResponse response,
+                         ServletWebRequest webRequest) {
         log.info("CompilationPublicController: getAllAdmin.");
+        CursorPage<String> page = responseCache.get(
+                ResponseCache.COMPILATIONS + pinned + ":" + from + ":" + size + ":" + cursor, webRequest,
+                () -> compilationService.getAll(pinned, from, size, cursor));
 
-        return compilationService.getAll(pinned, from, size);
+        return page == null ? null : "[" + String.join(",", page.writeTo(response)) + "]";
     }
 
-    @GetMapping("/{compId}")
-    public CompilationDto getById(@PathVariable long compId) {
+    @GetMapping(value = "/{compId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String getById(@PathVariable long compId, ServletWebRequest webRequest) {
         log.info("CompilationPublicController: getById.");
 
-        return compilationService.getById(compId);
+        return responseCache.get(ResponseCache.COMPILATIONS + compId, webRequest,
+                () -> compilationService.getById(compId));
     }
 
 }
@@ -3,8 +3,6 @@ package ru.practicum.compilation.dto;
 import org.springframework.stereotype.Component;
 import ru.practicum.compilation.model.Compilation;
 import ru.practicum.event.dto.EventMapper;
-import ru.practicum.event.model.Event;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -15,16 +13,10 @@ public class CompilationMapper {
         this.eventMapper = eventMapper;
     }
 
-    public CompilationDto toDto(Compilation compilation,
-                                Map<Long, Long> confirmedRequests,
-                                Map<Long, Integer>  hitCounts) {
+    public CompilationDto toDto(Compilation compilation) {
         return CompilationDto.builder()
                 .events(compilation.getEvents().stream()
-                        .map((Event event) -> eventMapper.toShortDto(event,
-                                        confirmedRequests.get(event.getId()),
-                                        hitCounts.get(event.getId())
-                                )
-                        )
+                        .map(eventMapper::toShortDto)
                         .collect(Collectors.toList()))
                 .id(compilation.getId())
                 .pinned(compilation.isPinned())
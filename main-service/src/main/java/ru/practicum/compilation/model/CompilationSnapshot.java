@@ -0,0 +1,12 @@
+package ru.practicum.compilation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CompilationSnapshot {
+    private final long compilationId;
+    private final long generation;
+    private final String body;
+}
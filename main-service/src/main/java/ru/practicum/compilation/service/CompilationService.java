@@ -2,13 +2,13 @@ package ru.practicum.compilation.service;
 
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.dto.NewCompilationDto;
-import java.util.List;
+import ru.practicum.util.CursorPage;
 
 public interface CompilationService {
 
-    List<CompilationDto> getAll(Boolean pinned, int from, int size);
+    CursorPage<String> getAll(Boolean pinned, int from, int size, String cursor);
 
-    CompilationDto getById(long compilationId);
+    String getById(long compilationId);
 
     CompilationDto create(NewCompilationDto newCompilationDto);
 
@@ -1,65 +1,63 @@
 package ru.practicum.compilation.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.dto.CompilationMapper;
 import ru.practicum.compilation.dto.NewCompilationDto;
 import ru.practicum.compilation.model.Compilation;
+import ru.practicum.compilation.model.CompilationSnapshot;
 import ru.practicum.compilation.storage.CompilationRepository;
-import ru.practicum.event.dto.EventMapper;
+import ru.practicum.compilation.storage.CompilationSnapshotRepository;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.service.EventService;
 import ru.practicum.exception.NotFoundException;
-import ru.practicum.request.service.RequestService;
-import ru.practicum.util.PageableRequest;
-import java.util.HashSet;
+import ru.practicum.util.CursorPage;
+import ru.practicum.util.PageCursor;
+import ru.practicum.util.ResponseCache;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class CompilationServiceImpl implements CompilationService {
     private final EventService eventService;
-    private final RequestService requestService;
     private final CompilationRepository compilationRepository;
-    private final EventMapper eventMapper;
     private final CompilationMapper compilationMapper;
+    private final CompilationSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
 
     @Override
-    public List<CompilationDto> getAll(Boolean pinned, int from, int size) {
-        List<Compilation> compilations = compilationRepository.findAllByPinnedIs(pinned,
-                getPageable(from, size, Sort.unsorted()));
-        Set<Long> eventIds = new HashSet<>();
-        for (Compilation compilation : compilations) {
-            Set<Long> subEventIds = compilation.getEvents().stream().map(eventMapper::toId).collect(Collectors.toSet());
-            eventIds.addAll(subEventIds);
-        }
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
-        Map<Long, Integer>  hitCounts = eventService.getHitCountsByEventIdSet(eventIds);
+    public CursorPage<String> getAll(Boolean pinned, int from, int size, String cursor) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<CompilationSnapshot> snapshots = snapshotRepository.findPage(pinned,
+                after == null ? null : after.getIdOrZero(), from, size);
+        Map<Long, String> bodies = bodiesOf(snapshots);
         log.info("CompilationService: getAllAdmin.");
 
-        return compilations.stream()
-                .map((Compilation compilation) -> compilationMapper.toDto(compilation, confirmedRequests, hitCounts))
-                .collect(Collectors.toList());
+        return CursorPage.of(snapshots, after, size,
+                snapshot -> PageCursor.after(null, snapshot.getCompilationId()),
+                snapshot -> bodies.get(snapshot.getCompilationId()));
     }
 
     @Override
-    public CompilationDto getById(long compilationId) {
-        Compilation compilation = getByIdAndThrow(compilationId);
-        Set<Long> eventIds = compilation.getEvents().stream().map(eventMapper::toId).collect(Collectors.toSet());
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
-        Map<Long, Integer>  hitCounts = eventService.getHitCountsByEventIdSet(eventIds);
-        log.info("CompilationService: getById. CompilationId {}.", compilation);
+    public String getById(long compilationId) {
+        String body = snapshotRepository.findById(compilationId)
+                .filter(snapshot -> snapshot.getBody() != null)
+                .map(CompilationSnapshot::getBody)
+                .orElseGet(() -> build(compilationRepository.findWithEventsById(compilationId).orElseThrow(() ->
+                        new NotFoundException("Compilation {} doesn't exist", compilationId))));
+        log.info("CompilationService: getById. CompilationId {}.", compilationId);
 
-        return compilationMapper.toDto(compilation, confirmedRequests, hitCounts);
+        return body;
     }
 
     @Override
@@ -69,18 +67,20 @@ public class CompilationServiceImpl implements CompilationService {
         Set<Event> eventList = eventService.getAllByEvents(newCompilationDto.getEvents());
         compilation.setEvents(eventList);
         compilation = compilationRepository.save(compilation);
-        Set<Long> eventIds = compilation.getEvents().stream().map(eventMapper::toId).collect(Collectors.toSet());
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
-        Map<Long, Integer>  hitCounts = eventService.getHitCountsByEventIdSet(eventIds);
+        CompilationDto compilationDto = compilationMapper.toDto(compilation);
+        snapshotRepository.create(compilation.getId(), toJson(compilationDto));
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: create.");
 
-        return compilationMapper.toDto(compilation, confirmedRequests, hitCounts);
+        return compilationDto;
     }
 
     @Override
+    @Transactional
     public void delete(long compilationId) {
         getByIdAndThrow(compilationId);
         compilationRepository.deleteById(compilationId);
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: delete. CompilationId {}.", compilationId);
     }
 
@@ -89,6 +89,8 @@ public class CompilationServiceImpl implements CompilationService {
     public void deleteEvent(long compilationId, long eventId) {
         Compilation compilation = getByIdAndThrow(compilationId);
         compilation.getEvents().remove(eventService.getById(eventId));
+        snapshotRepository.rebuild(compilationId, toJson(compilationMapper.toDto(compilation)));
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: deleteEvent. CompilationId {}, eventId {}", compilationId, eventId);
     }
 
@@ -97,6 +99,8 @@ public class CompilationServiceImpl implements CompilationService {
     public void createEvent(long compilationId, long eventId) {
         Compilation compilation = getByIdAndThrow(compilationId);
         compilation.getEvents().add(eventService.getById(eventId));
+        snapshotRepository.rebuild(compilationId, toJson(compilationMapper.toDto(compilation)));
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: createEvent. CompilationId {}, eventId {}", compilationId, eventId);
     }
 
@@ -105,6 +109,8 @@ public class CompilationServiceImpl implements CompilationService {
     public void pin(long compilationId) {
         Compilation compilation = getByIdAndThrow(compilationId);
         compilation.setPinned(true);
+        snapshotRepository.rebuild(compilationId, toJson(compilationMapper.toDto(compilation)));
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: pin.");
     }
 
@@ -113,6 +119,8 @@ public class CompilationServiceImpl implements CompilationService {
     public void unpin(long compilationId) {
         Compilation compilation = getByIdAndThrow(compilationId);
         compilation.setPinned(false);
+        snapshotRepository.rebuild(compilationId, toJson(compilationMapper.toDto(compilation)));
+        responseCache.invalidate(ResponseCache.COMPILATIONS);
         log.info("CompilationService: unpin.");
     }
 
@@ -121,7 +129,43 @@ public class CompilationServiceImpl implements CompilationService {
                 new NotFoundException("Compilation {} doesn't exist", compilationId));
     }
 
-    private Pageable getPageable(int from, int size, Sort sort) {
-        return new PageableRequest(from, size, sort);
+    private Map<Long, String> bodiesOf(List<CompilationSnapshot> snapshots) {
+        Map<Long, String> bodies = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+        for (CompilationSnapshot snapshot : snapshots) {
+            if (snapshot.getBody() != null) {
+                bodies.put(snapshot.getCompilationId(), snapshot.getBody());
+            } else {
+                generations.put(snapshot.getCompilationId(), snapshot.getGeneration());
+            }
+        }
+        if (!generations.isEmpty()) {
+            for (Compilation compilation : compilationRepository.findDistinctByIdIn(generations.keySet())) {
+                String body = toJson(compilationMapper.toDto(compilation));
+                snapshotRepository.store(compilation.getId(), generations.get(compilation.getId()), body);
+                bodies.put(compilation.getId(), body);
+            }
+            log.info("CompilationService: rebuilt {} compilation snapshots.", generations.size());
+        }
+
+        return bodies;
+    }
+
+    private String build(Compilation compilation) {
+        long generation = snapshotRepository.findById(compilation.getId())
+                .map(CompilationSnapshot::getGeneration)
+                .orElse(-1L);
+        String body = toJson(compilationMapper.toDto(compilation));
+        snapshotRepository.store(compilation.getId(), generation, body);
+
+        return body;
+    }
+
+    private String toJson(CompilationDto compilationDto) {
+        try {
+            return objectMapper.writeValueAsString(compilationDto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Compilation can't be serialized.", e);
+        }
     }
 }
@@ -1,13 +1,19 @@
 package ru.practicum.compilation.storage;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.compilation.model.Compilation;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
 
-    List<Compilation> findAllByPinnedIs(Boolean pinned, Pageable pageable);
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    List<Compilation> findDistinctByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    Optional<Compilation> findWithEventsById(Long compilationId);
 }
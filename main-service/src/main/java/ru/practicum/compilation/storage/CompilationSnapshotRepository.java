@@ -0,0 +1,86 @@
+package ru.practicum.compilation.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.compilation.model.CompilationSnapshot;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class CompilationSnapshotRepository {
+
+    private static final RowMapper<CompilationSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) ->
+            new CompilationSnapshot(rs.getLong("compilation_id"), rs.getLong("generation"), rs.getString("body"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<CompilationSnapshot> findPage(Boolean pinned, Long afterId, long offset, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pinned", pinned)
+                .addValue("afterId", afterId == null ? 0 : afterId)
+                .addValue("offset", afterId == null ? offset : 0)
+                .addValue("size", size);
+
+        return jdbcTemplate.query("SELECT c.compilation_id, COALESCE(s.generation, -1) AS generation, s.body " +
+                        " FROM compilations c " +
+                        " LEFT JOIN compilation_snapshots s ON s.compilation_id = c.compilation_id " +
+                        " WHERE " + (pinned == null ? "c.pinned IS NULL" : "c.pinned = :pinned") +
+                        " AND c.compilation_id > :afterId " +
+                        " ORDER BY c.compilation_id LIMIT :size OFFSET :offset",
+                params,
+                SNAPSHOT_MAPPER);
+    }
+
+    public Optional<CompilationSnapshot> findById(long compilationId) {
+        return jdbcTemplate.query("SELECT compilation_id, generation, body FROM compilation_snapshots " +
+                        " WHERE compilation_id = :compilationId",
+                new MapSqlParameterSource("compilationId", compilationId),
+                SNAPSHOT_MAPPER).stream().findFirst();
+    }
+
+    public void create(long compilationId, String body) {
+        jdbcTemplate.update("INSERT INTO compilation_snapshots (compilation_id, generation, body) " +
+                        " VALUES (:compilationId, 0, :body)",
+                new MapSqlParameterSource()
+                        .addValue("compilationId", compilationId)
+                        .addValue("body", body));
+    }
+
+    public void rebuild(long compilationId, String body) {
+        jdbcTemplate.update("UPDATE compilation_snapshots SET generation = generation + 1, body = :body " +
+                        " WHERE compilation_id = :compilationId",
+                new MapSqlParameterSource()
+                        .addValue("compilationId", compilationId)
+                        .addValue("body", body));
+    }
+
+    public boolean store(long compilationId, long generation, String body) {
+        return jdbcTemplate.update("UPDATE compilation_snapshots SET body = :body " +
+                        " WHERE compilation_id = :compilationId AND generation = :generation",
+                new MapSqlParameterSource()
+                        .addValue("compilationId", compilationId)
+                        .addValue("generation", generation)
+                        .addValue("body", body)) > 0;
+    }
+
+    public int invalidateByEvents(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+
+        return jdbcTemplate.update("UPDATE compilation_snapshots SET generation = generation + 1, body = NULL " +
+                        " WHERE compilation_id IN " +
+                        " (SELECT ec.compilation_id FROM event_compilation ec WHERE ec.event_id IN (:eventIds))",
+                new MapSqlParameterSource("eventIds", eventIds));
+    }
+
+    public int invalidateAll() {
+        return jdbcTemplate.getJdbcTemplate()
+                .update("UPDATE compilation_snapshots SET generation = generation + 1, body = NULL");
+    }
+}
@@ -1,64 +1,176 @@
 package ru.practicum.event.client;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.common.VirtualThreads;
 import ru.practicum.event.dto.EndpointHitDto;
+import ru.practicum.event.dto.HitChangesDto;
 import ru.practicum.event.dto.ViewStatsDto;
 import ru.practicum.util.DateFormatterCustom;
-import javax.servlet.http.HttpServletRequest;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+@Slf4j
 @Component
 public class EventClient {
 
+    private static final String STAT_SERVICE = "statService";
+
     private final RestTemplate template;
     private final DateFormatterCustom formatter;
-
-    private final String appName;
+    private final CloseableHttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ExecutorService asyncExecutor;
 
     public EventClient(@Value("${ewm-stat.url}") String url,
-                       @Value("${application.name}") String appName,
                        RestTemplateBuilder template,
-                       DateFormatterCustom formatter) {
-        this.appName = appName;
+                       DateFormatterCustom formatter,
+                       MeterRegistry meterRegistry,
+                       @Value("${ewm-stat.client.max-connections}") int maxConnections,
+                       @Value("${ewm-stat.client.connect-timeout-ms}") int connectTimeoutMs,
+                       @Value("${ewm-stat.client.read-timeout-ms}") int readTimeoutMs,
+                       @Value("${ewm-stat.client.pool-timeout-ms}") int poolTimeoutMs,
+                       @Value("${ewm-stat.client.idle-timeout-ms}") long idleTimeoutMs,
+                       @Value("${ewm-stat.client.breaker.failure-rate-threshold}") float failureRateThreshold,
+                       @Value("${ewm-stat.client.breaker.sliding-window-size}") int slidingWindowSize,
+                       @Value("${ewm-stat.client.breaker.open-duration-ms}") long openDurationMs,
+                       @Value("${ewm-stat.client.bulkhead.max-concurrent-calls}") int maxConcurrentCalls,
+                       @Value("${ewm-stat.client.async-threads}") int asyncThreads,
+                       @Value("${ewm.virtual-threads.enabled}") boolean virtualThreads) {
         this.formatter = formatter;
+        this.asyncExecutor = virtualThreads
+                ? VirtualThreads.newExecutor()
+                : Executors.newFixedThreadPool(asyncThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "stat-client-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
         this.template = template
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                 .uriTemplateHandler(new DefaultUriBuilderFactory(url))
                 .build();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(STAT_SERVICE);
+        this.bulkhead = bulkheads.bulkhead(STAT_SERVICE);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("EventClient: stat-service circuit {}.", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        asyncExecutor.shutdownNow();
+        httpClient.close();
     }
 
-    public void addHit(HttpServletRequest request) {
-        template.postForEntity("/hit",
-                getHttpEntity(makeEndpointHit(request)),
-                EndpointHitDto.class);
+    public void addHits(List<EndpointHitDto> endpointHitDtos) {
+        call(() -> template.postForEntity("/hit/batch",
+                getHttpEntity(endpointHitDtos),
+                Void.class));
     }
 
     public ResponseEntity<List<ViewStatsDto>> getHits(LocalDateTime start,
                                                       LocalDateTime end,
                                                       String[] uris,
                                                       boolean unique) {
-        return template.exchange("/stats?start={start}&end={end}&uris={uris}&unique={unique}",
+        return call(() -> template.exchange("/stats?start={start}&end={end}&uris={uris}&unique={unique}",
                 HttpMethod.GET,
                 getHttpEntity(null),
                 new ParameterizedTypeReference<>() {
                 },
-                encodeDate(start), encodeDate(end), uris, unique);
+                encodeDate(start), encodeDate(end), uris, unique));
+    }
+
+    public List<ViewStatsDto> getTotals(String app, String[] uris) {
+        return call(() -> template.exchange("/stats/totals?app={app}&uris={uris}",
+                        HttpMethod.GET,
+                        getHttpEntity(null),
+                        new ParameterizedTypeReference<List<ViewStatsDto>>() {
+                        },
+                        app, uris)
+                .getBody());
+    }
+
+    public CompletableFuture<List<ViewStatsDto>> getTotalsAsync(String app, String[] uris) {
+        return CompletableFuture.supplyAsync(() -> getTotals(app, uris), asyncExecutor);
+    }
+
+    public HitChangesDto getChanges(String app, long since, int limit) {
+        return call(() -> template.exchange("/stats/changes?app={app}&since={since}&limit={limit}",
+                        HttpMethod.GET,
+                        getHttpEntity(null),
+                        HitChangesDto.class,
+                        app, since, limit)
+                .getBody());
     }
 
-    private EndpointHitDto makeEndpointHit(HttpServletRequest request) {
-        return new EndpointHitDto(appName,
-                request.getRequestURI(),
-                request.getRemoteAddr(),
-                LocalDateTime.now()
-        );
+    private <T> T call(Supplier<T> request) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ResourceAccessException("stat-service call rejected. " + e.getMessage());
+        }
     }
 
     private <T> HttpEntity<T> getHttpEntity(T dto) {
@@ -0,0 +1,216 @@
+package ru.practicum.event.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.event.dto.EndpointHitDto;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class HitRecorder {
+
+    private final EventClient eventClient;
+    private final ObjectMapper objectMapper;
+    private final String appName;
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+    private final List<EndpointHitDto> inFlight = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    private final Counter sentCounter;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter failedCounter;
+
+    public HitRecorder(EventClient eventClient,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${application.name}") String appName,
+                       @Value("${ewm-stat.hits.queue-capacity}") int queueCapacity,
+                       @Value("${ewm-stat.hits.batch-size}") int batchSize,
+                       @Value("${ewm-stat.hits.flush-interval-ms}") long flushIntervalMs,
+                       @Value("${ewm-stat.hits.overflow-policy}") OverflowPolicy overflowPolicy,
+                       @Value("${ewm-stat.hits.block-timeout-ms}") long blockTimeoutMs,
+                       @Value("${ewm-stat.hits.spill-file}") String spillFile) {
+        this.eventClient = eventClient;
+        this.objectMapper = objectMapper;
+        this.appName = appName;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.spillFile = Path.of(spillFile);
+
+        meterRegistry.gauge("ewm.stats.hits.queue.size", queue, BlockingQueue::size);
+        this.sentCounter = meterRegistry.counter("ewm.stats.hits.sent");
+        this.droppedCounter = meterRegistry.counter("ewm.stats.hits.dropped");
+        this.spilledCounter = meterRegistry.counter("ewm.stats.hits.spilled");
+        this.failedCounter = meterRegistry.counter("ewm.stats.hits.failed");
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hit-recorder-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(HttpServletRequest request) {
+        EndpointHitDto hit = new EndpointHitDto(appName,
+                request.getRequestURI(),
+                request.getRemoteAddr(),
+                LocalDateTime.now()
+        );
+        if (queue.offer(hit)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                offerBlocking(hit);
+                break;
+            case SPILL:
+                spill(List.of(hit));
+                break;
+            default:
+                droppedCounter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        if (flusher.awaitTermination(blockTimeoutMs + 5000, TimeUnit.MILLISECONDS)) {
+            flush();
+        }
+        if (!inFlight.isEmpty() || !queue.isEmpty()) {
+            List<EndpointHitDto> rest = new ArrayList<>(inFlight);
+            queue.drainTo(rest);
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(rest);
+            } else {
+                droppedCounter.increment(rest.size());
+            }
+        }
+        log.info("HitRecorder: shutdown.");
+    }
+
+    private void flush() {
+        try {
+            while (send()) {
+                if (inFlight.isEmpty() && queue.drainTo(inFlight, batchSize) == 0) {
+                    replaySpill();
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("HitRecorder: flush failed. {}", e.getMessage());
+        }
+    }
+
+    private boolean send() {
+        if (inFlight.isEmpty()) {
+            return true;
+        }
+        try {
+            eventClient.addHits(inFlight);
+            sentCounter.increment(inFlight.size());
+        } catch (HttpClientErrorException e) {
+            failedCounter.increment(inFlight.size());
+            log.warn("HitRecorder: batch rejected by stat-service. {}", e.getMessage());
+        } catch (RestClientException e) {
+            log.warn("HitRecorder: stat-service unavailable, {} hits pending. {}", inFlight.size(), e.getMessage());
+            return false;
+        }
+        inFlight.clear();
+        return true;
+    }
+
+    private void offerBlocking(EndpointHitDto hit) {
+        try {
+            if (!queue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                droppedCounter.increment();
+            }
+        } catch (InterruptedException e) {
+            droppedCounter.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void spill(List<EndpointHitDto> hits) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (EndpointHitDto hit : hits) {
+                    writer.write(objectMapper.writeValueAsString(hit));
+                    writer.newLine();
+                }
+                spilledCounter.increment(hits.size());
+            } catch (IOException e) {
+                droppedCounter.increment(hits.size());
+                log.warn("HitRecorder: spill failed. {}", e.getMessage());
+            }
+        }
+    }
+
+    private void replaySpill() {
+        List<String> lines;
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return;
+            }
+            Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+            try {
+                Files.move(spillFile, replayFile, StandardCopyOption.REPLACE_EXISTING);
+                lines = Files.readAllLines(replayFile, StandardCharsets.UTF_8);
+                Files.delete(replayFile);
+            } catch (IOException e) {
+                log.warn("HitRecorder: spill replay failed. {}", e.getMessage());
+                return;
+            }
+        }
+        List<EndpointHitDto> hits = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                hits.add(objectMapper.readValue(line, EndpointHitDto.class));
+            } catch (JsonProcessingException e) {
+                failedCounter.increment();
+            }
+        }
+        log.info("HitRecorder: replaying {} spilled hits.", hits.size());
+        for (int from = 0; from < hits.size(); from += batchSize) {
+            inFlight.addAll(hits.subList(from, Math.min(from + batchSize, hits.size())));
+            if (!send()) {
+                inFlight.clear();
+                spill(hits.subList(from, hits.size()));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.event.client;
+
+public enum OverflowPolicy {
+    DROP,
+    BLOCK,
+    SPILL
+}
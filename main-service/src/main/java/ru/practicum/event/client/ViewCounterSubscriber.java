@@ -0,0 +1,122 @@
+package ru.practicum.event.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.event.dto.HitChangesDto;
+import ru.practicum.event.dto.ViewStatsDto;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class ViewCounterSubscriber {
+
+    private static final String EVENT_URI_PREFIX = "/events/";
+
+    private final EventClient eventClient;
+    private final String appName;
+    private final int batchSize;
+    private final long overlap;
+    private final long resyncIntervalMs;
+    private final Map<Long, Integer> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> changed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller;
+    private volatile boolean synced;
+    private long cursor;
+    private long lastResync;
+
+    public ViewCounterSubscriber(EventClient eventClient,
+                                 @Value("${application.name}") String appName,
+                                 @Value("${ewm-stat.changes.enabled}") boolean enabled,
+                                 @Value("${ewm-stat.changes.poll-interval-ms}") long pollIntervalMs,
+                                 @Value("${ewm-stat.changes.batch-size}") int batchSize,
+                                 @Value("${ewm-stat.changes.overlap}") long overlap,
+                                 @Value("${ewm-stat.changes.resync-interval-ms}") long resyncIntervalMs) {
+        this.eventClient = eventClient;
+        this.appName = appName;
+        this.batchSize = batchSize;
+        this.overlap = overlap;
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "view-counter-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            this.poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public int getViews(long eventId) {
+        return counters.getOrDefault(eventId, 0);
+    }
+
+    public Map<Long, Integer> drainChanged() {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Long eventId : changed.keySet()) {
+            Integer views = changed.remove(eventId);
+            if (views != null) {
+                drained.put(eventId, views);
+            }
+        }
+        return drained;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        log.info("ViewCounterSubscriber: shutdown.");
+    }
+
+    private void poll() {
+        long now = System.currentTimeMillis();
+        if (now - lastResync >= resyncIntervalMs) {
+            cursor = 0;
+            lastResync = now;
+        }
+        try {
+            boolean full = cursor == 0;
+            long since = Math.max(0, cursor - overlap);
+            HitChangesDto changes;
+            do {
+                changes = eventClient.getChanges(appName, since, batchSize);
+                changes.getChanges().forEach(change -> apply(change, full));
+                since = changes.getCursor();
+            } while (changes.getChanges().size() == batchSize);
+            cursor = Math.max(cursor, since);
+            synced = true;
+        } catch (RestClientException e) {
+            synced = false;
+            log.warn("ViewCounterSubscriber: stat-service unavailable, cursor {}. {}", cursor, e.getMessage());
+        } catch (RuntimeException e) {
+            synced = false;
+            log.warn("ViewCounterSubscriber: poll failed. {}", e.getMessage());
+        }
+    }
+
+    private void apply(ViewStatsDto change, boolean full) {
+        if (!change.getUri().startsWith(EVENT_URI_PREFIX)) {
+            return;
+        }
+        try {
+            Long eventId = Long.valueOf(change.getUri().substring(EVENT_URI_PREFIX.length()));
+            Integer previous = counters.put(eventId, change.getHits());
+            if (full || !Integer.valueOf(change.getHits()).equals(previous)) {
+                changed.put(eventId, change.getHits());
+            }
+        } catch (NumberFormatException e) {
+            log.debug("ViewCounterSubscriber: skip uri {}.", change.getUri());
+        }
+    }
+}
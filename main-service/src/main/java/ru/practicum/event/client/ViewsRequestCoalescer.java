@@ -0,0 +1,168 @@
+package ru.practicum.event.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.event.dto.ViewStatsDto;
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class ViewsRequestCoalescer {
+
+    private static final String EVENT_URI_PREFIX = "/events/";
+
+    private final EventClient eventClient;
+    private final String appName;
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Integer>> pending = new HashMap<>();
+    private final Map<Long, CompletableFuture<Integer>> inFlight = new HashMap<>();
+
+    private final Counter lookupCounter;
+    private final Counter requestCounter;
+
+    public ViewsRequestCoalescer(EventClient eventClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${application.name}") String appName,
+                                 @Value("${ewm-stat.views.coalesce-window-ms}") long windowMs,
+                                 @Value("${ewm-stat.views.fetch-chunk-size}") int maxBatchSize) {
+        this.eventClient = eventClient;
+        this.appName = appName;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.lookupCounter = meterRegistry.counter("ewm.stats.views.lookups");
+        this.requestCounter = meterRegistry.counter("ewm.stats.views.requests");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "views-request-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Integer> getViews(long eventId) {
+        lookupCounter.increment();
+        CompletableFuture<Integer> future;
+        Map<Long, CompletableFuture<Integer>> full = null;
+        synchronized (lock) {
+            future = pending.get(eventId);
+            if (future == null) {
+                future = inFlight.get(eventId);
+            }
+            if (future != null) {
+                return future;
+            }
+            if (pending.isEmpty()) {
+                scheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+            future = new CompletableFuture<>();
+            pending.put(eventId, future);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new HashMap<>();
+                inFlight.putAll(full);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+
+        return future;
+    }
+
+    public Map<Long, Integer> getAll(Collection<Long> eventIds) {
+        Map<Long, CompletableFuture<Integer>> requests = new HashMap<>();
+        eventIds.forEach(eventId -> requests.put(eventId, getViews(eventId)));
+        Map<Long, Integer> views = new HashMap<>();
+        try {
+            requests.forEach((eventId, request) -> views.put(eventId, request.join()));
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return views;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("ViewsRequestCoalescer: shutdown.");
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Integer>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            inFlight.putAll(batch);
+        }
+        send(batch);
+    }
+
+    private void send(Map<Long, CompletableFuture<Integer>> batch) {
+        requestCounter.increment();
+        String[] uris = batch.keySet().stream()
+                .map(eventId -> EVENT_URI_PREFIX + eventId)
+                .toArray(String[]::new);
+        CompletableFuture<List<ViewStatsDto>> request;
+        try {
+            request = eventClient.getTotalsAsync(appName, uris);
+        } catch (RuntimeException e) {
+            complete(batch, null, e);
+            return;
+        }
+        request.whenComplete((stats, error) -> complete(batch, stats, error));
+    }
+
+    private void complete(Map<Long, CompletableFuture<Integer>> batch, List<ViewStatsDto> stats, Throwable error) {
+        synchronized (lock) {
+            batch.forEach(inFlight::remove);
+        }
+        if (error != null) {
+            batch.values().forEach(future -> future.completeExceptionally(error));
+            return;
+        }
+        try {
+            Map<Long, Integer> views = new HashMap<>();
+            if (stats != null) {
+                for (ViewStatsDto view : stats) {
+                    Long eventId = eventIdOf(view.getUri());
+                    if (eventId != null) {
+                        views.merge(eventId, view.getHits(), Integer::sum);
+                    }
+                }
+            }
+            batch.forEach((eventId, future) -> future.complete(views.getOrDefault(eventId, 0)));
+            log.info("ViewsRequestCoalescer: send. Events {}.", batch.size());
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private Long eventIdOf(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(uri.substring(uri.lastIndexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            log.warn("ViewsRequestCoalescer: unexpected uri {}.", uri);
+            return null;
+        }
+    }
+}
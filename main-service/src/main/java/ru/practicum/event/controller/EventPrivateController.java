@@ -10,6 +10,9 @@ import ru.practicum.event.dto.ShortEventDto;
 import ru.practicum.event.dto.UpdateEventRequest;
 import ru.practicum.event.service.EventService;
 import ru.practicum.request.dto.RequestDto;
+import ru.practicum.request.dto.RequestStatusResultDto;
+import ru.practicum.request.dto.UpdateRequestStatusDto;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -26,10 +29,12 @@ public class EventPrivateController {
     @GetMapping
     public List<ShortEventDto> getAllPrivate(@PathVariable long userId,
                                              @PositiveOrZero @RequestParam(value = "from", defaultValue = "0") int from,
-                                             @Positive @RequestParam(value = "size", defaultValue = "10") int size) {
+                                             @Positive @RequestParam(value = "size", defaultValue = "10") int size,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             HttpServletResponse response) {
         log.info("EventPrivateController: getAllPrivate.");
 
-        return eventService.getAllPrivate(userId, from, size);
+        return eventService.getAllPrivate(userId, from, size, cursor).writeTo(response);
     }
 
     @PostMapping
@@ -72,6 +77,15 @@ public class EventPrivateController {
         return eventService.getEventRequestsPrivate(userId, eventId);
     }
 
+    @PatchMapping("/{eventId}/requests")
+    public RequestStatusResultDto updateEventRequestsPrivate(@PathVariable long userId,
+                                                             @PathVariable long eventId,
+                                                             @Valid @RequestBody UpdateRequestStatusDto update) {
+        log.info("EventPrivateController: updateEventRequestsPrivate.");
+
+        return eventService.updateEventRequestsPrivate(userId, eventId, update);
+    }
+
     @PatchMapping("/{eventId}/requests/{reqId}/confirm")
     public RequestDto confirmEventRequestPrivate(@PathVariable long userId,
                                                  @PathVariable long eventId,
@@ -5,11 +5,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import ru.practicum.event.client.EventClient;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.event.client.HitRecorder;
 import ru.practicum.event.dto.FullEventDto;
 import ru.practicum.event.dto.ShortEventDto;
 import ru.practicum.event.service.EventService;
+import ru.practicum.util.ResponseCache;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
@@ -22,7 +25,8 @@ import java.util.List;
 @Slf4j
 public class EventPublicController {
     private final EventService eventService;
-    private final EventClient eventClient;
+    private final HitRecorder hitRecorder;
+    private final ResponseCache responseCache;
 
     @GetMapping
     public List<ShortEventDto> getAll(
@@ -32,12 +36,14 @@ public class EventPublicController {
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(name = "onlyAvailable", required = false) Boolean onlyAvailable,
-            @RequestParam(name = "sort", defaultValue = "EVENT_DATE", required = false) String sort,
+            @RequestParam(name = "sort", required = false) String sort,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
-            HttpServletRequest request) {
+            @RequestParam(name = "cursor", required = false) String cursor,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         log.info("EventPublicController: getAllAdmin.");
-        eventClient.addHit(request);
+        hitRecorder.record(request);
 
         return eventService.getAllPublic(text,
                 categories,
@@ -48,15 +54,19 @@ public class EventPublicController {
                 sort,
                 from,
                 size,
-                request);
+                cursor,
+                request).writeTo(response);
     }
 
     @GetMapping("/{id}")
-    public FullEventDto getById(@PathVariable(name = "id") Long eventId, HttpServletRequest request) {
+    public FullEventDto getById(@PathVariable(name = "id") Long eventId,
+                                HttpServletRequest request,
+                                ServletWebRequest webRequest) {
         log.info("EventPublicController: getById.");
-        eventClient.addHit(request);
+        hitRecorder.record(request);
 
-        return eventService.getByIdPublic(eventId);
+        return responseCache.get(ResponseCache.event(eventId), webRequest,
+                () -> eventService.getByIdPublic(eventId));
     }
 
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import java.time.temporal.ChronoUnit;
 
 @Component
 public class EventMapper {
-    public FullEventDto toFullDto(Event event, Long confirmedRequests, Integer views) {
+    public FullEventDto toFullDto(Event event) {
         CategoryDto categoryDto = CategoryDto.builder()
                 .id(event.getCategory().getId())
                 .name(event.getCategory().getName())
@@ -24,7 +24,7 @@ public class EventMapper {
                 .id(event.getId())
                 .annotation(event.getAnnotation())
                 .category(categoryDto)
-                .confirmedRequests(confirmedRequests)
+                .confirmedRequests(event.getConfirmedRequests())
                 .createdOn(event.getCreatedOn())
                 .description(event.getDescription())
                 .eventDate(event.getEventDate())
@@ -36,11 +36,11 @@ public class EventMapper {
                 .requestModeration(event.getRequestModeration())
                 .state(event.getState().toString())
                 .title(event.getTitle())
-                .views(views)
+                .views(event.getViews())
                 .build();
     }
 
-    public ShortEventDto toShortDto(Event event, Long confirmedRequests, Integer views) {
+    public ShortEventDto toShortDto(Event event) {
         CategoryDto categoryDto = CategoryDto.builder()
                 .id(event.getCategory().getId())
                 .name(event.getCategory().getName())
@@ -54,12 +54,12 @@ public class EventMapper {
                 .id(event.getId())
                 .annotation(event.getAnnotation())
                 .category(categoryDto)
-                .confirmedRequests(confirmedRequests)
+                .confirmedRequests(event.getConfirmedRequests())
                 .eventDate(event.getEventDate())
                 .initiator(userShortDto)
                 .paid(event.getPaid())
                 .title(event.getTitle())
-                .views(views)
+                .views(event.getViews())
                 .build();
     }
 
@@ -0,0 +1,12 @@
+package ru.practicum.event.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitChangesDto {
+    private long cursor;
+    private List<ViewStatsDto> changes;
+}
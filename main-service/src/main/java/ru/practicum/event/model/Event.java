@@ -24,7 +24,7 @@ public class Event {
     @Column(name = "annotation", nullable = false, length = 2000)
     private String annotation;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -37,7 +37,7 @@ public class Event {
     @Column(name = "event_date")
     private LocalDateTime eventDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
     private User initiator;
 
@@ -62,4 +62,12 @@ public class Event {
 
     @Column(name = "title", nullable = false, length = 120)
     private String title;
+
+    @Builder.Default
+    @Column(name = "views", nullable = false, updatable = false)
+    private Integer views = 0;
+
+    @Builder.Default
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
+    private Long confirmedRequests = 0L;
 }
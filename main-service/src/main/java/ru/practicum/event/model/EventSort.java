@@ -0,0 +1,18 @@
+package ru.practicum.event.model;
+
+import java.util.Optional;
+
+public enum EventSort {
+    EVENT_DATE,
+    VIEWS,
+    RELEVANCE;
+
+    public static Optional<EventSort> from(String stringSort) {
+        for (EventSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.compilation.storage.CompilationSnapshotRepository;
+import ru.practicum.event.client.ViewCounterSubscriber;
+import ru.practicum.event.client.ViewsRequestCoalescer;
+import ru.practicum.event.storage.EventCounterRepository;
+import ru.practicum.event.storage.EventRepository;
+import ru.practicum.util.ResponseCache;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class EventCountersSynchronizer {
+
+    private final EventRepository eventRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final ViewCounterSubscriber viewCounterSubscriber;
+    private final ViewsRequestCoalescer viewsRequestCoalescer;
+    private final CompilationSnapshotRepository snapshotRepository;
+    private final ResponseCache responseCache;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private long lastPolledEventId;
+
+    public EventCountersSynchronizer(EventRepository eventRepository,
+                                     EventCounterRepository eventCounterRepository,
+                                     ViewCounterSubscriber viewCounterSubscriber,
+                                     ViewsRequestCoalescer viewsRequestCoalescer,
+                                     CompilationSnapshotRepository snapshotRepository,
+                                     ResponseCache responseCache,
+                                     @Value("${ewm.counters.views-sync-interval-ms}") long viewsSyncIntervalMs,
+                                     @Value("${ewm.counters.reconcile-interval-ms}") long reconcileIntervalMs,
+                                     @Value("${ewm.counters.batch-size}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.eventCounterRepository = eventCounterRepository;
+        this.viewCounterSubscriber = viewCounterSubscriber;
+        this.viewsRequestCoalescer = viewsRequestCoalescer;
+        this.snapshotRepository = snapshotRepository;
+        this.responseCache = responseCache;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-counters-synchronizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::syncViews,
+                viewsSyncIntervalMs, viewsSyncIntervalMs, TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleWithFixedDelay(this::reconcileConfirmedRequests,
+                0, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("EventCountersSynchronizer: shutdown.");
+    }
+
+    private void syncViews() {
+        try {
+            Map<Long, Integer> views;
+            if (viewCounterSubscriber.isSynced()) {
+                views = viewCounterSubscriber.drainChanged();
+            } else {
+                List<Long> eventIds = eventRepository.findIdsAfter(lastPolledEventId, PageRequest.of(0, batchSize));
+                lastPolledEventId = eventIds.isEmpty() ? 0 : eventIds.get(eventIds.size() - 1);
+                views = viewsRequestCoalescer.getAll(eventIds);
+            }
+            if (!views.isEmpty()) {
+                List<Long> changed = eventCounterRepository.updateViews(views);
+                responseCache.invalidateEvents(changed);
+                snapshotRepository.invalidateByEvents(changed);
+                log.info("EventCountersSynchronizer: syncViews. Updated {} events.", changed.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("EventCountersSynchronizer: syncViews failed. {}", e.getMessage());
+        }
+    }
+
+    private void reconcileConfirmedRequests() {
+        try {
+            List<Long> repaired = eventCounterRepository.findConfirmedRequestsDrift().stream()
+                    .filter(eventCounterRepository::repairConfirmedRequests)
+                    .collect(Collectors.toList());
+            if (!repaired.isEmpty()) {
+                responseCache.invalidateEvents(repaired);
+                snapshotRepository.invalidateByEvents(repaired);
+                log.warn("EventCountersSynchronizer: reconcileConfirmedRequests. Repaired events {}.", repaired);
+            }
+        } catch (RuntimeException e) {
+            log.warn("EventCountersSynchronizer: reconcileConfirmedRequests failed. {}", e.getMessage());
+        }
+    }
+}
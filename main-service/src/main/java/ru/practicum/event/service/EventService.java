@@ -3,10 +3,12 @@ package ru.practicum.event.service;
 import ru.practicum.event.dto.*;
 import ru.practicum.event.model.Event;
 import ru.practicum.request.dto.RequestDto;
+import ru.practicum.request.dto.RequestStatusResultDto;
+import ru.practicum.request.dto.UpdateRequestStatusDto;
+import ru.practicum.util.CursorPage;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 public interface EventService {
@@ -20,7 +22,7 @@ public interface EventService {
 
     FullEventDto rejectByAdmin(long eventId);
 
-    List<ShortEventDto> getAllPrivate(long userId, int from, int size);
+    CursorPage<ShortEventDto> getAllPrivate(long userId, int from, int size, String cursor);
 
     FullEventDto updatePrivate(long userId, UpdateEventRequest eventDto);
 
@@ -36,24 +38,29 @@ public interface EventService {
 
     RequestDto rejectEventRequestPrivate(long userId, long eventId, long requestId);
 
+    RequestStatusResultDto updateEventRequestsPrivate(long userId, long eventId, UpdateRequestStatusDto update);
+
     Event getById(long eventId);
 
-    List<ShortEventDto> getAllPublic(String text,
-                                     Long[] categories,
-                                     Boolean paid,
-                                     LocalDateTime rangeStart,
-                                     LocalDateTime rangeEnd,
-                                     Boolean onlyAvailable,
-                                     String sort,
-                                     Integer from,
-                                     Integer size,
-                                     HttpServletRequest request);
+    CursorPage<ShortEventDto> getAllPublic(String text,
+                                           Long[] categories,
+                                           Boolean paid,
+                                           LocalDateTime rangeStart,
+                                           LocalDateTime rangeEnd,
+                                           Boolean onlyAvailable,
+                                           String sort,
+                                           Integer from,
+                                           Integer size,
+                                           String cursor,
+                                           HttpServletRequest request);
 
     FullEventDto getByIdPublic(long eventId);
 
     Set<Event> getAllByEvents(Set<Long> events);
 
-    Map<Long, Integer> getHitCountsByEventIdSet(Set<Long> eventIds);
+    boolean reserveParticipant(long eventId);
+
+    void releaseParticipant(long eventId);
 
     Event getEventByIdPrivate(long eventId);
 }
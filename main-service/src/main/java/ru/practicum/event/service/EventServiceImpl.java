@@ -2,32 +2,41 @@ package ru.practicum.event.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.category.dto.CategoryMapper;
 import ru.practicum.category.service.CategoryService;
-import ru.practicum.event.client.EventClient;
+import ru.practicum.compilation.storage.CompilationSnapshotRepository;
 import ru.practicum.event.dto.*;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventSort;
 import ru.practicum.event.model.State;
 import ru.practicum.event.storage.EventRepository;
+import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.dto.RequestMapper;
+import ru.practicum.request.dto.RequestStatusResultDto;
+import ru.practicum.request.dto.UpdateRequestStatusDto;
 import ru.practicum.request.model.Request;
 import ru.practicum.request.model.Status;
 import ru.practicum.request.service.RequestService;
 import ru.practicum.user.service.UserService;
 import ru.practicum.util.Constant;
+import ru.practicum.util.CursorPage;
+import ru.practicum.util.PageCursor;
 import ru.practicum.util.PageableRequest;
+import ru.practicum.util.ResponseCache;
 import javax.servlet.http.HttpServletRequest;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,8 +47,9 @@ public class EventServiceImpl implements EventService {
     private final EventRepository repository;
     private final UserService userService;
     private final RequestService requestService;
-    private final EventClient eventClient;
     private final EventMapper eventMapper;
+    private final CompilationSnapshotRepository snapshotRepository;
+    private final ResponseCache responseCache;
 
     @Override
     public List<FullEventDto> getAllByAdmin(Long[] users, String[] states, Long[] categories,
@@ -56,16 +66,10 @@ public class EventServiceImpl implements EventService {
         Sort sort = Sort.sort(Event.class).by(Event::getEventDate).descending();
         List<Event> events = repository.findAllByUsersAndStatesAndCategories(users, stateList, categories,
                 ranges.get(0), ranges.get(1), getPageable(from, size, sort));
-        Set<Long> eventIds = events.stream().map(eventMapper::toId).collect(Collectors.toSet());
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(eventIds);
         log.info("EventService: getAllByAdmin.");
 
         return events.stream()
-                .map((Event event) -> eventMapper.toFullDto(event,
-                        confirmedRequests.get(event.getId()),
-                        hitCounts.get(event.getId()))
-                )
+                .map(eventMapper::toFullDto)
                 .collect(Collectors.toList());
     }
 
@@ -76,12 +80,11 @@ public class EventServiceImpl implements EventService {
         eventUpdatePreparation(eventMapper.fromAdminUpdateEventRequest(eventDto), event);
         Optional.ofNullable(eventDto.getLocation()).ifPresent(event::setLocation);
         Optional.ofNullable(eventDto.getRequestModeration()).ifPresent(event::setRequestModeration);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
+        responseCache.invalidateEvents(List.of(eventId));
+        snapshotRepository.invalidateByEvents(List.of(eventId));
         log.info("EventService: updateByAdmin. EventId {}.", eventId);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -92,13 +95,12 @@ public class EventServiceImpl implements EventService {
                 event.getState() == State.PENDING) {
             event.setPublishedOn(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
             event.setState(State.PUBLISHED);
+            responseCache.invalidateEvents(List.of(eventId));
+            snapshotRepository.invalidateByEvents(List.of(eventId));
             log.info("EventService: publishByAdmin. EventId {}.", eventId);
         }
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -107,29 +109,26 @@ public class EventServiceImpl implements EventService {
         Event event = getByIdAndThrow(eventId);
         if (event.getState() == State.PENDING) {
             event.setState(State.CANCELED);
+            responseCache.invalidateEvents(List.of(eventId));
+            snapshotRepository.invalidateByEvents(List.of(eventId));
             log.info("EventService: rejectByAdmin. EventId {}.", eventId);
         }
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
-    public List<ShortEventDto> getAllPrivate(long userId, int from, int size) {
-        List<Event> events = repository.findAllByInitiatorId(userId, getPageable(from, size, Sort.unsorted()));
-        Set<Long> eventIds = events.stream().map(eventMapper::toId).collect(Collectors.toSet());
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(eventIds);
+    public CursorPage<ShortEventDto> getAllPrivate(long userId, int from, int size, String cursor) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<Event> events = after == null
+                ? repository.findAllByInitiatorId(userId, getPageable(from, size, Sort.unsorted()))
+                : repository.findAllByInitiatorIdAndIdGreaterThan(userId, after.getIdOrZero(),
+                        PageRequest.of(0, size, Sort.by("id")));
         log.info("EventService: getAllPrivate.");
 
-        return events.stream()
-                .map((Event event) -> eventMapper.toShortDto(event,
-                        confirmedRequests.get(event.getId()),
-                        hitCounts.get(event.getId()))
-                )
-                .collect(Collectors.toList());
+        return CursorPage.of(events, after, size,
+                event -> PageCursor.after(null, event.getId()),
+                eventMapper::toShortDto);
     }
 
     @Override
@@ -147,12 +146,11 @@ public class EventServiceImpl implements EventService {
             event.setState(State.PENDING);
         }
         eventUpdatePreparation(eventMapper.fromUpdateEventRequest(eventDto), event);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(event.getId()));
+        responseCache.invalidateEvents(List.of(event.getId()));
+        snapshotRepository.invalidateByEvents(List.of(event.getId()));
         log.info("EventService: updatePrivate. Event {}.", event);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(event.getId()),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -163,12 +161,9 @@ public class EventServiceImpl implements EventService {
         event.setCategory(CategoryMapper.fromCategoryDto(categoryService.getById(newEventDto.getCategory())));
         event.setInitiator(userService.getById(userId));
         repository.save(event);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(event.getId()));
         log.info("EventService: createPrivate. Event {}.", event);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(event.getId()),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -177,12 +172,9 @@ public class EventServiceImpl implements EventService {
         if (event == null) {
             throw new NotFoundException("Event {} not found.", eventId);
         }
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
         log.info("EventService: getByIdPrivate. EventId {}.", eventId);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -196,12 +188,11 @@ public class EventServiceImpl implements EventService {
             throw new ValidationException("Only pending event can be canceled.");
         }
         event.setState(State.CANCELED);
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
+        responseCache.invalidateEvents(List.of(eventId));
+        snapshotRepository.invalidateByEvents(List.of(eventId));
         log.info("EventService: cancelPrivate. EventId {}.", eventId);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId()));
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -224,14 +215,11 @@ public class EventServiceImpl implements EventService {
         if (event.getParticipantLimit() == 0 || !event.getRequestModeration()) {
             return RequestMapper.toRequestDto(request);
         }
-        Long confirmedRequests = requestService.getConfirmed(eventId);
-        if (confirmedRequests.equals((long) event.getParticipantLimit())) {
+        if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
             log.info("Limit of requests for the event is reached.");
             throw new ValidationException("Limit of requests for the event is reached.");
         }
-        request.setStatus(Status.CONFIRMED);
-
-        requestService.save(request);
+        requestService.updateStatus(request, Status.CONFIRMED);
         log.info("EventService: confirmEventRequestPrivate. RequestId {}.", requestId);
 
         return RequestMapper.toRequestDto(request);
@@ -245,13 +233,63 @@ public class EventServiceImpl implements EventService {
         if (request.getStatus() == Status.REJECTED || request.getStatus() == Status.CANCELED) {
             throw new ValidationException("Request has already canceled or rejected.");
         }
-        request.setStatus(Status.REJECTED);
-        requestService.save(request);
+        requestService.updateStatus(request, Status.REJECTED);
         log.info("EventService: rejectEventRequestPrivate. RequestId {}.", requestId);
 
         return RequestMapper.toRequestDto(request);
     }
 
+    @Override
+    @Transactional
+    public RequestStatusResultDto updateEventRequestsPrivate(long userId, long eventId, UpdateRequestStatusDto update) {
+        Event event = getByIdAndThrow(eventId);
+        if (userId != event.getInitiator().getId()) {
+            throw new ValidationException("Request statuses can be changed only by event creator.");
+        }
+        if (update.getStatus() != Status.CONFIRMED && update.getStatus() != Status.REJECTED) {
+            throw new ValidationException("Requests can be only confirmed or rejected.");
+        }
+        Set<Long> requestIds = new HashSet<>(update.getRequestIds());
+        List<Request> requests = requestService.getAllByIdsAndEventId(eventId, new ArrayList<>(requestIds));
+        if (requests.size() != requestIds.size()
+                || requests.stream().anyMatch(request -> request.getStatus() != Status.PENDING)) {
+            throw new ConflictException("Only pending requests of the event can be changed.");
+        }
+
+        int confirmCount = 0;
+        boolean limitReached = false;
+        if (update.getStatus() == Status.CONFIRMED) {
+            confirmCount = requests.size();
+            if (event.getParticipantLimit() != 0) {
+                long available = event.getParticipantLimit() - repository.lockConfirmedRequests(eventId);
+                if (available <= 0) {
+                    throw new ConflictException("Limit of requests for the event is reached.");
+                }
+                confirmCount = (int) Math.min(confirmCount, available);
+                limitReached = confirmCount >= available;
+            }
+            if (confirmCount > 0 && repository.reserveParticipants(eventId, confirmCount) == 0) {
+                throw new ValidationException("Limit of requests for the event is reached.");
+            }
+            responseCache.invalidateEvents(List.of(eventId));
+            snapshotRepository.invalidateByEvents(List.of(eventId));
+        }
+        List<Request> confirmed = requests.subList(0, confirmCount);
+        List<Request> rejected = requests.subList(confirmCount, requests.size());
+        requestService.updateStatuses(idsOf(confirmed), Status.PENDING, Status.CONFIRMED);
+        requestService.updateStatuses(idsOf(rejected), Status.PENDING, Status.REJECTED);
+        if (limitReached) {
+            requestService.rejectAllPending(eventId);
+        }
+        log.info("EventService: updateEventRequestsPrivate. EventId {}, confirmed {}, rejected {}.",
+                eventId, confirmed.size(), rejected.size());
+
+        return RequestStatusResultDto.builder()
+                .confirmedRequests(toRequestDtos(confirmed, Status.CONFIRMED))
+                .rejectedRequests(toRequestDtos(rejected, Status.REJECTED))
+                .build();
+    }
+
     @Override
     public Event getById(long eventId) {
         log.info("EventService: getById. EventId {}.", eventId);
@@ -260,25 +298,46 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public List<ShortEventDto> getAllPublic(String text,
-                                            Long[] categories,
-                                            Boolean paid,
-                                            LocalDateTime rangeStart,
-                                            LocalDateTime rangeEnd,
-                                            Boolean onlyAvailable,
-                                            String sortType,
-                                            Integer from,
-                                            Integer size,
-                                            HttpServletRequest request) {
-        if (categories != null) {
-            for (Long categoryId : categories) {
-                categoryService.getById(categoryId);
-            }
+    public CursorPage<ShortEventDto> getAllPublic(String text,
+                                                  Long[] categories,
+                                                  Boolean paid,
+                                                  LocalDateTime rangeStart,
+                                                  LocalDateTime rangeEnd,
+                                                  Boolean onlyAvailable,
+                                                  String sortType,
+                                                  Integer from,
+                                                  Integer size,
+                                                  String cursor,
+                                                  HttpServletRequest request) {
+        if (categories != null && categories.length > 0
+                && !categoryService.existsAllById(Arrays.asList(categories))) {
+            throw new NotFoundException("Category filter contains categories that don't exist.", null);
         }
 
-        Sort sort = "EVENT_DATE".equals(sortType) ?
-                Sort.sort(Event.class).by(Event::getEventDate).ascending() :
-                Sort.unsorted();
+        boolean hasText = text != null && !text.isBlank();
+        EventSort eventSort = sortType == null || sortType.isBlank()
+                ? hasText ? EventSort.RELEVANCE : EventSort.EVENT_DATE
+                : EventSort.from(sortType).orElseThrow(() -> new ValidationException("Unknown sort: " + sortType));
+        if (eventSort == EventSort.RELEVANCE && !hasText) {
+            eventSort = EventSort.EVENT_DATE;
+        }
+        Sort sort;
+        Function<Event, Object> sortKey;
+        switch (eventSort) {
+            case EVENT_DATE:
+                sort = Sort.sort(Event.class).by(Event::getEventDate).ascending()
+                        .and(Sort.sort(Event.class).by(Event::getId).ascending());
+                sortKey = Event::getEventDate;
+                break;
+            case VIEWS:
+                sort = Sort.sort(Event.class).by(Event::getViews).descending()
+                        .and(Sort.sort(Event.class).by(Event::getId).descending());
+                sortKey = Event::getViews;
+                break;
+            default:
+                sort = Sort.unsorted();
+                sortKey = event -> null;
+        }
         if (onlyAvailable == null) {
             onlyAvailable = true;
         }
@@ -286,33 +345,22 @@ public class EventServiceImpl implements EventService {
             paid = true;
         }
         List<LocalDateTime> ranges = eventDatePreparation(rangeStart, rangeEnd);
+        PageCursor after = PageCursor.decode(cursor);
 
-        List<Event> events = repository.findAllByParam(
+        List<Event> events = repository.findAllPublished(
                 text,
                 categories,
                 paid,
                 ranges.get(0),
                 ranges.get(1),
                 onlyAvailable,
-                getPageable(from / size, size, sort));
-        Set<Long> eventIds = events.stream().map(eventMapper::toId).collect(Collectors.toSet());
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(eventIds);
-        Map<Long, Long> confirmedRequests = requestService.getCountConfirmedByEventsId(eventIds);
+                after,
+                getPageable(from, size, sort));
         log.info("EventService: getAllPublic.");
 
-        List<ShortEventDto> results = events.stream()
-                .map((Event event) ->
-                        eventMapper.toShortDto(event,
-                                confirmedRequests.get(event.getId()),
-                                hitCounts.get(event.getId()))
-                )
-                .collect(Collectors.toList());
-        if (sortType.equals("EVENT_DATE")) {
-            return results;
-        } else {
-            return results.stream().sorted((e1, e2) -> Integer.compare(e2.getViews(), e1.getViews()))
-                    .collect(Collectors.toList());
-        }
+        return CursorPage.of(events, after, size,
+                event -> PageCursor.after(sortKey.apply(event), event.getId()),
+                eventMapper::toShortDto);
     }
 
     @Override
@@ -321,13 +369,9 @@ public class EventServiceImpl implements EventService {
         if (event == null) {
             throw new NotFoundException("Event {} doesn't exist.", eventId);
         }
-        Map<Long, Integer> hitCounts = getHitCountsByEventIdSet(Set.of(eventId));
         log.info("EventService: getByIdPublic. EventId {}.", eventId);
 
-        return eventMapper.toFullDto(event,
-                requestService.getConfirmed(eventId),
-                hitCounts.get(event.getId())
-        );
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -338,29 +382,24 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public Map<Long, Integer> getHitCountsByEventIdSet(Set<Long> eventIds) {
-        Map<Long, Integer> results = new HashMap<>();
-        if (eventIds != null && !eventIds.isEmpty()) {
-            String[] uris = eventIds.stream()
-                    .map(id -> "/events/" + id).toArray(String[]::new);
-            List<ViewStatsDto> views = eventClient.getHits(
-                            LocalDateTime.of(2023, 1, 1, 0, 0, 0),
-                            LocalDateTime.now(),
-                            uris,
-                            false
-                    )
-                    .getBody();
-            if (views != null && !views.isEmpty()) {
-                views.forEach(view -> {
-                    String[] parts = view.getUri().split("/");
-                    Long eventId = Long.valueOf(parts[parts.length - 1]);
-                    results.put(eventId, view.getHits());
-                });
-            }
-            eventIds.forEach(eventId -> results.putIfAbsent(eventId, 0));
+    public boolean reserveParticipant(long eventId) {
+        boolean reserved = repository.reserveParticipants(eventId, 1) > 0;
+        if (reserved) {
+            responseCache.invalidateEvents(List.of(eventId));
+            snapshotRepository.invalidateByEvents(List.of(eventId));
+        }
+        log.info("EventService: reserveParticipant. EventId {}, reserved {}.", eventId, reserved);
+
+        return reserved;
+    }
+
+    @Override
+    public void releaseParticipant(long eventId) {
+        log.info("EventService: releaseParticipant. EventId {}.", eventId);
+        if (repository.releaseParticipant(eventId) > 0) {
+            responseCache.invalidateEvents(List.of(eventId));
+            snapshotRepository.invalidateByEvents(List.of(eventId));
         }
-        log.info("EventService: getHitCountsByEventIdSet.");
-        return results;
     }
 
     @Override
@@ -369,6 +408,22 @@ public class EventServiceImpl implements EventService {
         return getByIdAndThrow(eventId);
     }
 
+    private List<Long> idsOf(List<Request> requests) {
+        return requests.stream()
+                .map(Request::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<RequestDto> toRequestDtos(List<Request> requests, Status status) {
+        return requests.stream()
+                .map(request -> {
+                    RequestDto requestDto = RequestMapper.toRequestDto(request);
+                    requestDto.setStatus(status.toString());
+                    return requestDto;
+                })
+                .collect(Collectors.toList());
+    }
+
     private Event getByIdAndThrow(long eventId) {
         return repository.findById(eventId).orElseThrow(() ->
                 new NotFoundException("Event {} doesn't exist.", eventId));
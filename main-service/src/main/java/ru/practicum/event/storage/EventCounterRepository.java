@@ -0,0 +1,63 @@
+package ru.practicum.event.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class EventCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public List<Long> updateViews(Map<Long, Integer> views) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(views.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate("UPDATE events SET views = ? WHERE event_id = ? AND views <> ?",
+                entries,
+                entries.size(),
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.setInt(3, entry.getValue());
+                });
+        List<Long> changed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count != 0) {
+                    changed.add(entries.get(index).getKey());
+                }
+                index++;
+            }
+        }
+
+        return changed;
+    }
+
+    public List<Long> findConfirmedRequestsDrift() {
+        return jdbcTemplate.queryForList("SELECT e.event_id FROM events e WHERE e.confirmed_requests <> " +
+                " (SELECT COUNT(*) FROM requests r WHERE r.event_id = e.event_id AND r.status = 'CONFIRMED')",
+                Long.class);
+    }
+
+    @Transactional
+    public boolean repairConfirmedRequests(long eventId) {
+        List<Long> stored = jdbcTemplate.queryForList("SELECT confirmed_requests FROM events " +
+                " WHERE event_id = ? FOR UPDATE", Long.class, eventId);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Long actual = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests " +
+                " WHERE event_id = ? AND status = 'CONFIRMED'", Long.class, eventId);
+        if (stored.get(0).equals(actual)) {
+            return false;
+        }
+
+        return jdbcTemplate.update("UPDATE events SET confirmed_requests = ? WHERE event_id = ?", actual, eventId) > 0;
+    }
+}
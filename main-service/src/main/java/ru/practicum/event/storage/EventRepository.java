@@ -1,25 +1,40 @@
 package ru.practicum.event.storage;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.model.State;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventRepositoryCustom {
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    @Override
+    Optional<Event> findById(Long eventId);
+
+    @EntityGraph(attributePaths = {"category", "initiator"})
     List<Event> findAllByInitiatorId(Long initiatorId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    List<Event> findAllByInitiatorIdAndIdGreaterThan(Long initiatorId, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Event findByInitiatorIdAndId(Long initiatorId, Long eventId);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Event findByIdAndStateLike(Long eventId, State state);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     @Query("SELECT e FROM Event e " +
             " WHERE e.initiator.id IN :users " +
             " AND e.state IN :states " +
@@ -29,27 +44,23 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
     List<Event> findAllByUsersAndStatesAndCategories(Long[] users, List<State> states, Long[] categories,
                                                      LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
-    @Query("SELECT e FROM Event e " +
-            " WHERE e.state = ru.practicum.event.model.State.PUBLISHED " +
-            " AND (e.annotation LIKE CONCAT('%',:text,'%') OR e.description LIKE CONCAT('%',:text,'%')) " +
-            " AND e.category.id IN :categories " +
-            " AND e.paid = :paid " +
-            " AND (e.eventDate BETWEEN :rangeStart AND :rangeEnd) " +
-            " AND (" +
-            " (:onlyAvailable = true AND e.participantLimit = 0) " +
-            "OR (:onlyAvailable = true AND e.participantLimit > " +
-            "(SELECT COUNT(r.id) FROM Request r WHERE r.status = 'CONFIRMED' AND r.event = e)) " +
-            "OR (:onlyAvailable = false)" +
-            ") "
-    )
-    List<Event> findAllByParam(String text,
-                               Long[] categories,
-                               Boolean paid,
-                               LocalDateTime rangeStart,
-                               LocalDateTime rangeEnd,
-                               Boolean onlyAvailable,
-                               Pageable pageable);
-
+    @EntityGraph(attributePaths = {"category", "initiator"})
     @Query("SELECT e FROM Event e WHERE e.id IN :events")
     Set<Event> findAllByEvents(Set<Long> events);
+
+    @Query("SELECT e.id FROM Event e WHERE e.id > ?1 ORDER BY e.id")
+    List<Long> findIdsAfter(long eventId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            " WHERE e.id = ?1 AND (e.participantLimit = 0 OR e.confirmedRequests + ?2 <= e.participantLimit)")
+    int reserveParticipants(long eventId, long count);
+
+    @Query(value = "SELECT confirmed_requests FROM events WHERE event_id = ?1 FOR UPDATE", nativeQuery = true)
+    long lockConfirmedRequests(long eventId);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - 1 " +
+            " WHERE e.id = ?1 AND e.confirmedRequests > 0")
+    int releaseParticipant(long eventId);
 }
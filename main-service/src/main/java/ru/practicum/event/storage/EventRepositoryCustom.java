@@ -0,0 +1,19 @@
+package ru.practicum.event.storage;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.event.model.Event;
+import ru.practicum.util.PageCursor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventRepositoryCustom {
+
+    List<Event> findAllPublished(String text,
+                                 Long[] categories,
+                                 Boolean paid,
+                                 LocalDateTime rangeStart,
+                                 LocalDateTime rangeEnd,
+                                 Boolean onlyAvailable,
+                                 PageCursor after,
+                                 Pageable pageable);
+}
@@ -0,0 +1,156 @@
+package ru.practicum.event.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.State;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.util.PageCursor;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+    private final EntityManager entityManager;
+    private final boolean fullText;
+
+    public EventRepositoryCustomImpl(EntityManager entityManager,
+                                     @Value("${ewm.search.full-text}") boolean fullText) {
+        this.entityManager = entityManager;
+        this.fullText = fullText;
+    }
+
+    @Override
+    public List<Event> findAllPublished(String text,
+                                        Long[] categories,
+                                        Boolean paid,
+                                        LocalDateTime rangeStart,
+                                        LocalDateTime rangeEnd,
+                                        Boolean onlyAvailable,
+                                        PageCursor after,
+                                        Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> criteria = cb.createQuery(Event.class);
+        Root<Event> event = criteria.from(Event.class);
+        event.fetch("category", JoinType.LEFT);
+        event.fetch("initiator", JoinType.LEFT);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(event.get("state"), State.PUBLISHED));
+
+        boolean hasText = text != null && !text.isBlank();
+        ParameterExpression<String> patternParameter = cb.parameter(String.class, "pattern");
+        ParameterExpression<String> textParameter = cb.parameter(String.class, "text");
+        if (hasText) {
+            predicates.add(cb.or(
+                    cb.like(cb.lower(event.get("annotation")), patternParameter, '\\'),
+                    cb.like(cb.lower(event.get("description")), patternParameter, '\\')));
+        }
+        if (categories != null && categories.length > 0) {
+            predicates.add(event.get("category").get("id").in(Arrays.asList(categories)));
+        }
+        if (paid != null) {
+            predicates.add(cb.equal(event.get("paid"), paid));
+        }
+        if (rangeStart != null && rangeEnd != null) {
+            predicates.add(cb.between(event.get("eventDate"), rangeStart, rangeEnd));
+        }
+        if (Boolean.TRUE.equals(onlyAvailable)) {
+            predicates.add(cb.or(
+                    cb.equal(event.get("participantLimit"), 0),
+                    cb.gt(event.get("participantLimit"), event.get("confirmedRequests"))));
+        }
+        Sort sort = pageable.getSort();
+        if (after != null && sort.isUnsorted()) {
+            sort = Sort.by("id");
+        }
+        Expression<Double> rank = hasText && fullText && sort.isUnsorted()
+                ? cb.function("text_rank", Double.class, event.get("annotation"), event.get("description"), textParameter)
+                : null;
+        if (after != null && !after.isFirst()) {
+            predicates.add(seek(cb, event, sort, after));
+        }
+        criteria.select(event).where(predicates.toArray(new Predicate[0]));
+
+        if (sort.isSorted()) {
+            criteria.orderBy(QueryUtils.toOrders(sort, event, cb));
+        } else if (rank != null) {
+            criteria.orderBy(cb.desc(rank), cb.desc(event.get("id")));
+        } else {
+            criteria.orderBy(cb.desc(event.get("id")));
+        }
+
+        TypedQuery<Event> query = entityManager.createQuery(criteria)
+                .setFirstResult(after == null ? (int) pageable.getOffset() : 0)
+                .setMaxResults(pageable.getPageSize());
+        if (hasText) {
+            query.setParameter(patternParameter, "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (rank != null) {
+            query.setParameter(textParameter, text);
+        }
+
+        return query.getResultList();
+    }
+
+    private Predicate seek(CriteriaBuilder cb, Root<Event> event, Sort sort, PageCursor after) {
+        Path<Long> id = event.get("id");
+        Sort.Order idOrder = sort.getOrderFor("id");
+        Predicate afterId = idOrder == null || idOrder.isAscending()
+                ? cb.greaterThan(id, after.getId())
+                : cb.lessThan(id, after.getId());
+        Sort.Order keyOrder = sort.stream()
+                .filter(order -> !"id".equals(order.getProperty()))
+                .findFirst()
+                .orElse(null);
+        if (keyOrder == null) {
+            return afterId;
+        }
+        if (after.getSortKey() == null) {
+            throw new ValidationException("Cursor doesn't match the requested sort.");
+        }
+        try {
+            switch (keyOrder.getProperty()) {
+                case "eventDate":
+                    return seek(cb, event.<LocalDateTime>get("eventDate"), LocalDateTime.parse(after.getSortKey()),
+                            keyOrder.isAscending(), afterId);
+                case "views":
+                    return seek(cb, event.<Integer>get("views"), Integer.valueOf(after.getSortKey()),
+                            keyOrder.isAscending(), afterId);
+                default:
+                    throw new ValidationException("Cursor pagination isn't supported for this sort.");
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Cursor doesn't match the requested sort.");
+        }
+    }
+
+    private <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder cb,
+                                                             Path<T> key,
+                                                             T value,
+                                                             boolean ascending,
+                                                             Predicate afterId) {
+        return cb.or(
+                ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value),
+                cb.and(cb.equal(key, value), afterId));
+    }
+
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
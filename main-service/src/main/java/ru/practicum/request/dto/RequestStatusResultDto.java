@@ -0,0 +1,14 @@
+package ru.practicum.request.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestStatusResultDto {
+    private List<RequestDto> confirmedRequests;
+    private List<RequestDto> rejectedRequests;
+}
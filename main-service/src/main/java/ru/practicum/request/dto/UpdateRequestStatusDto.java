@@ -0,0 +1,19 @@
+package ru.practicum.request.dto;
+
+import lombok.*;
+import ru.practicum.request.model.Status;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateRequestStatusDto {
+    @NotEmpty
+    private List<@NotNull Long> requestIds;
+    @NotNull
+    private Status status;
+}
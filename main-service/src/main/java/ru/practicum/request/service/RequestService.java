@@ -2,9 +2,8 @@ package ru.practicum.request.service;
 
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.model.Request;
+import ru.practicum.request.model.Status;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 public interface RequestService {
 
@@ -12,15 +11,17 @@ public interface RequestService {
 
     List<RequestDto> getAllByEventId(Long eventId);
 
-    Map<Long, Long> getCountConfirmedByEventsId(Set<Long> eventsId);
-
-    Long getConfirmed(long eventId);
-
     Request getById(Long requestId);
 
     RequestDto create(long userId, long eventId);
 
     RequestDto cancel(Long userId, Long requestId);
 
-    void save(Request request);
+    void updateStatus(Request request, Status status);
+
+    List<Request> getAllByIdsAndEventId(long eventId, List<Long> requestIds);
+
+    void updateStatuses(List<Long> requestIds, Status expected, Status status);
+
+    int rejectAllPending(long eventId);
 }
@@ -4,9 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.model.State;
 import ru.practicum.event.service.EventService;
+import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.request.dto.RequestDto;
@@ -14,8 +16,8 @@ import ru.practicum.request.dto.RequestMapper;
 import ru.practicum.request.model.Request;
 import ru.practicum.request.model.Status;
 import ru.practicum.request.storage.RequestRepository;
+import ru.practicum.user.model.User;
 import ru.practicum.user.service.UserService;
-import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -49,17 +51,6 @@ public class RequestServiceImpl implements RequestService {
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public Map<Long, Long> getCountConfirmedByEventsId(Set<Long> eventsId) {
-        Map<Long, Long> results = new HashMap<>();
-        List<Object[]> countList = requestRepository.getCountConfirmedByEventIdList(eventsId);
-        for (Object[] count: countList) {
-            results.put(((BigInteger) count[0]).longValue(), ((BigInteger) count[1]).longValue());
-        }
-        log.info("RequestService: getCountConfirmedByEventsId.");
-        return results;
-    }
-
     @Override
     public Request getById(Long requestId) {
         log.info("RequestService: getById. RequestId {}.", requestId);
@@ -69,16 +60,10 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
-    public Long getConfirmed(long eventId) {
-        log.info("RequestService: getConfirmed. EventId {}.", eventId);
-
-        return requestRepository.getCountConfirmedByEventId(eventId);
-    }
-
-    @Override
+    @Transactional
     public RequestDto create(long userId, long eventId) {
         Event event = eventService.getById(eventId);
-        userService.getById(userId);
+        User requester = userService.getById(userId);
         Optional<Request> requestOptional = requestRepository.findByRequesterIdAndEventId(userId, eventId);
         if (requestOptional.isPresent()) {
             log.info("Request is already exist.");
@@ -92,7 +77,7 @@ public class RequestServiceImpl implements RequestService {
         if (!event.getState().equals(State.PUBLISHED)) {
             throw new ValidationException("Request for unpublished event is forbidden.");
         }
-        if (getConfirmed(eventId).equals((long) event.getParticipantLimit()) && event.getParticipantLimit() != 0) {
+        if (event.getParticipantLimit() != 0 && event.getConfirmedRequests() >= event.getParticipantLimit()) {
             throw new ValidationException("Request for event with reached participation limit is forbidden.");
         }
         Status status;
@@ -101,32 +86,79 @@ public class RequestServiceImpl implements RequestService {
         } else {
             status = Status.CONFIRMED;
         }
+        if (status == Status.CONFIRMED && !eventService.reserveParticipant(eventId)) {
+            throw new ValidationException("Request for event with reached participation limit is forbidden.");
+        }
         Request request = Request.builder()
                 .status(status)
                 .event(event)
-                .requester(userService.getById(userId))
+                .requester(requester)
                 .created(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
                 .build();
+        request = requestRepository.save(request);
         log.info("RequestService: create. UserId {}, eventId {}.", userId, eventId);
 
-        return RequestMapper.toRequestDto(requestRepository.save(request));
+        return RequestMapper.toRequestDto(request);
     }
 
     @Override
+    @Transactional
     public RequestDto cancel(Long userId, Long requestId) {
         Optional<Request> request = requestRepository.findByRequesterIdAndId(userId, requestId);
         if (request.isEmpty()) {
             throw new ValidationException("Request doesn't exist.");
         }
-        request.get().setStatus(Status.CANCELED);
+        updateStatus(request.get(), Status.CANCELED);
         log.info("RequestService: cancel. RequestId {}.", requestId);
 
-        return RequestMapper.toRequestDto(requestRepository.save(request.get()));
+        return RequestMapper.toRequestDto(request.get());
     }
 
     @Override
-    public void save(Request request) {
-        log.info("RequestService: save. Request {}.", request);
-        requestRepository.save(request);
+    @Transactional
+    public void updateStatus(Request request, Status status) {
+        Status previous = request.getStatus();
+        if (previous == status) {
+            return;
+        }
+        if (status == Status.CONFIRMED && !eventService.reserveParticipant(request.getEvent().getId())) {
+            throw new ValidationException("Limit of requests for the event is reached.");
+        }
+        if (requestRepository.updateStatus(request.getId(), previous, status) == 0) {
+            throw new ConflictException("Request status was changed concurrently.");
+        }
+        if (previous == Status.CONFIRMED) {
+            eventService.releaseParticipant(request.getEvent().getId());
+        }
+        request.setStatus(status);
+        log.info("RequestService: updateStatus. RequestId {}, status {}.", request.getId(), status);
+    }
+
+    @Override
+    public List<Request> getAllByIdsAndEventId(long eventId, List<Long> requestIds) {
+        log.info("RequestService: getAllByIdsAndEventId. EventId {}, {} requests.", eventId, requestIds.size());
+
+        return requestRepository.findAllByEventIdAndIdInOrderById(eventId, requestIds);
+    }
+
+    @Override
+    @Transactional
+    public void updateStatuses(List<Long> requestIds, Status expected, Status status) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        if (requestRepository.updateStatuses(requestIds, expected, status) != requestIds.size()) {
+            throw new ConflictException("Request status was changed concurrently.");
+        }
+        log.info("RequestService: updateStatuses. {} requests, status {}.", requestIds.size(), status);
+    }
+
+    @Override
+    @Transactional
+    public int rejectAllPending(long eventId) {
+        int rejected = requestRepository.rejectAll(eventId);
+        log.info("RequestService: rejectAllPending. EventId {}, rejected {}.", eventId, rejected);
+
+        return rejected;
     }
 }
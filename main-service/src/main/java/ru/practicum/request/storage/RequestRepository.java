@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.request.model.Request;
+import ru.practicum.request.model.Status;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -16,20 +17,20 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     List<Request> findAllByEventId(Long eventId);
 
+    List<Request> findAllByEventIdAndIdInOrderById(Long eventId, Collection<Long> requestIds);
+
     @Modifying(clearAutomatically = true)
-    @Query(value = "UPDATE requests SET status = 'REJECTED' WHERE event_id = ?1", nativeQuery = true)
-    void rejectAll(Long eventId);
+    @Query(value = "UPDATE requests SET status = 'REJECTED' WHERE event_id = ?1 AND status = 'PENDING'",
+            nativeQuery = true)
+    int rejectAll(Long eventId);
 
-    @Query(value = "SELECT COUNT(*) FROM requests WHERE status = 'CONFIRMED' AND event_id = ?1", nativeQuery = true)
-    Long getCountConfirmedByEventId(long eventId);
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = ?3 WHERE r.id IN ?1 AND r.status = ?2")
+    int updateStatuses(Collection<Long> requestIds, Status expected, Status status);
 
-    @Query(value = "SELECT e.event_id, COALESCE(r.count_confirmed, 0) AS count_confirmed " +
-            "FROM events e " +
-            "LEFT JOIN (SELECT event_id, COUNT(*) AS count_confirmed " +
-            "FROM requests r WHERE status = 'CONFIRMED' GROUP BY event_id) r ON r.event_id = e.event_id " +
-            "WHERE e.event_id IN ?1",
-            nativeQuery = true)
-    List<Object[]> getCountConfirmedByEventIdList(Collection<Long> events);
+    @Modifying
+    @Query("UPDATE Request r SET r.status = ?3 WHERE r.id = ?1 AND r.status = ?2")
+    int updateStatus(long requestId, Status expected, Status status);
 
     Optional<Request> findByRequesterIdAndEventId(long userId, long eventId);
 
@@ -1,29 +1,49 @@
 package ru.practicum.user.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.dto.UserMapper;
 import ru.practicum.user.model.User;
 import ru.practicum.user.storage.UserRepository;
+import ru.practicum.util.AfterCommit;
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final Cache<Long, UserDto> users;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${ewm.cache.users.maximum-size}") long maximumSize,
+                           @Value("${ewm.cache.users.expire-after-ms}") long expireAfterMs) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
 
     @Override
     public User getById(long userId) {
         log.info("UserService: getById. UserId {}.", userId);
-        return userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("UserId {} doesn't exist.", userId));
+        return UserMapper.fromUserDto(users.get(userId, id -> UserMapper.toUserDto(userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("UserId {} doesn't exist.", id)))));
     }
 
     @Override
@@ -53,9 +73,11 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void delete(long userId) {
         getById(userId);
         userRepository.deleteById(userId);
+        AfterCommit.run(() -> users.invalidate(userId));
         log.info("UserService: delete. UserId {}.", userId);
     }
 
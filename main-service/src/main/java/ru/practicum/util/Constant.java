@@ -2,4 +2,5 @@ package ru.practicum.util;
 
 public class Constant {
     public static final String DATE_TIME_STRING = "yyyy-MM-dd HH:mm:ss";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
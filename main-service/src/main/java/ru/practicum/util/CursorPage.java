@@ -0,0 +1,34 @@
+package ru.practicum.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+
+    public static <E, T> CursorPage<T> of(List<E> rows,
+                                          PageCursor cursor,
+                                          int size,
+                                          Function<E, PageCursor> cursorOf,
+                                          Function<E, T> mapper) {
+        String nextCursor = cursor != null && !rows.isEmpty() && rows.size() == size
+                ? cursorOf.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+
+        return new CursorPage<>(rows.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+
+    public List<T> writeTo(HttpServletResponse response) {
+        if (nextCursor != null) {
+            response.setHeader(Constant.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.util;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+public class EwmPostgreSQLDialect extends PostgreSQL10Dialect {
+
+    public EwmPostgreSQLDialect() {
+        super();
+        registerFunction("text_rank", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "word_similarity(?3, coalesce(?1, '') || ' ' || coalesce(?2, ''))"));
+    }
+}
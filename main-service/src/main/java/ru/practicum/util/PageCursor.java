@@ -0,0 +1,53 @@
+package ru.practicum.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    private static final char SEPARATOR = '|';
+
+    private final String sortKey;
+    private final Long id;
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.isBlank()) {
+            return new PageCursor(null, null);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Invalid cursor.");
+            }
+            return new PageCursor(separator == 0 ? null : decoded.substring(0, separator),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor.");
+        }
+    }
+
+    public static PageCursor after(Object sortKey, long id) {
+        return new PageCursor(sortKey == null ? null : sortKey.toString(), id);
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public long getIdOrZero() {
+        return id == null ? 0L : id;
+    }
+
+    public String encode() {
+        String raw = (sortKey == null ? "" : sortKey) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
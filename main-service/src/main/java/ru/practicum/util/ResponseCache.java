@@ -0,0 +1,112 @@
+package ru.practicum.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ResponseCache {
+
+    public static final String EVENTS = "events:";
+    public static final String COMPILATIONS = "compilations:";
+    public static final String CATEGORIES = "categories:";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedResponse> responses;
+    private final String cacheControl;
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${ewm.response-cache.maximum-size}") long maximumSize,
+                         @Value("${ewm.response-cache.expire-after-ms}") long expireAfterMs) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .recordStats()
+                .build();
+        this.cacheControl = CacheControl.maxAge(Duration.ofMillis(expireAfterMs))
+                .cachePublic()
+                .getHeaderValue();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "publicResponses");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, ServletWebRequest request, Supplier<T> loader) {
+        CachedResponse cached = responses.get(key, k -> {
+            Object body = loader.get();
+            return new CachedResponse(tagOf(body), body);
+        });
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (request.checkNotModified(cached.getTag())) {
+            return null;
+        }
+
+        return (T) cached.getBody();
+    }
+
+    public static String event(long eventId) {
+        return EVENTS + eventId + ":";
+    }
+
+    public void invalidate(String... groups) {
+        AfterCommit.run(() -> evict(groups));
+    }
+
+    public void invalidateEvents(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = eventIds.stream()
+                .map(ResponseCache::event)
+                .collect(Collectors.toList());
+        AfterCommit.run(() -> {
+            responses.invalidateAll(keys);
+            evict(new String[]{COMPILATIONS});
+        });
+    }
+
+    private void evict(String[] groups) {
+        responses.asMap().keySet().removeIf(key -> Arrays.stream(groups).anyMatch(key::startsWith));
+        log.info("ResponseCache: invalidate. Groups {}.", Arrays.toString(groups));
+    }
+
+    private String tagOf(Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Response can't be tagged.", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedResponse {
+        private final String tag;
+        private final Object body;
+    }
+}
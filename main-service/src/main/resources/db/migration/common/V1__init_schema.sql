@@ -27,10 +27,22 @@ CREATE TABLE IF NOT EXISTS events (
                                     request_moderation BOOLEAN,
                                     state VARCHAR(255) NOT NULL,
                                     title VARCHAR(120) NOT NULL,
-                                    views INTEGER,
+                                    views INTEGER NOT NULL DEFAULT 0,
+                                    confirmed_requests BIGINT NOT NULL DEFAULT 0,
                                     CONSTRAINT event_id_pk PRIMARY KEY (event_id)
 );
 
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0;
+
+UPDATE events SET views = 0 WHERE views IS NULL;
+
+ALTER TABLE events ALTER COLUMN views SET DEFAULT 0;
+
+ALTER TABLE events ALTER COLUMN views SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_events_state_views
+    ON events(state, views, event_id);
+
 CREATE TABLE IF NOT EXISTS requests (
                                     request_id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY,
                                     event_id BIGINT NOT NULL REFERENCES events(event_id),
@@ -43,6 +55,9 @@ CREATE TABLE IF NOT EXISTS requests (
 CREATE UNIQUE INDEX IF NOT EXISTS idx_event_id_requester_id
     ON requests(event_id, requester_id);
 
+UPDATE events e SET confirmed_requests = (SELECT COUNT(*) FROM requests r
+                                          WHERE r.event_id = e.event_id AND r.status = 'CONFIRMED');
+
 CREATE TABLE IF NOT EXISTS compilations (
                                     compilation_id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY,
                                     pinned BOOLEAN,
@@ -0,0 +1,23 @@
+CREATE INDEX IF NOT EXISTS idx_requests_event_id_status
+    ON requests(event_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requester_id_event_id
+    ON requests(requester_id, event_id);
+
+CREATE INDEX IF NOT EXISTS idx_events_state_category_id_event_date_paid
+    ON events(state, category_id, event_date, paid);
+
+CREATE INDEX IF NOT EXISTS idx_events_initiator_id_event_id
+    ON events(initiator_id, event_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_user_id
+    ON comments(user_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_event_id
+    ON comments(event_id);
+
+CREATE INDEX IF NOT EXISTS idx_event_compilation_compilation_id
+    ON event_compilation(compilation_id, event_id);
+
+CREATE INDEX IF NOT EXISTS idx_compilations_pinned_compilation_id
+    ON compilations(pinned, compilation_id);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS compilation_snapshots (
+                                    compilation_id BIGINT NOT NULL REFERENCES compilations(compilation_id)
+                                    ON DELETE CASCADE,
+                                    generation BIGINT NOT NULL DEFAULT 0,
+                                    body TEXT,
+                                    CONSTRAINT compilation_snapshots_pk PRIMARY KEY (compilation_id)
+);
+
+INSERT INTO compilation_snapshots (compilation_id)
+SELECT compilation_id FROM compilations;
@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_requests_confirmed_event_id
+    ON requests(event_id) WHERE status = 'CONFIRMED';
+
+CREATE INDEX IF NOT EXISTS idx_events_published_event_date
+    ON events(event_date, event_id) WHERE state = 'PUBLISHED';
@@ -0,0 +1,196 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.category.model.Category;
+import ru.practicum.compilation.dto.NewCompilationDto;
+import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.compilation.storage.CompilationSnapshotRepository;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.service.EventService;
+import ru.practicum.user.model.User;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "ewm-stat.changes.enabled=false",
+        "ewm.counters.views-sync-interval-ms=3600000",
+        "ewm.counters.reconcile-interval-ms=3600000"
+})
+@Import(TestData.class)
+class HotQueryStatementCountTest {
+
+    private static final int EVENTS = 6;
+    private static final ThreadLocal<long[]> STATEMENTS = new ThreadLocal<>();
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private CompilationSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    private String title;
+    private List<User> users;
+    private List<Event> events;
+    private long compilationId;
+
+    @BeforeEach
+    void seed() {
+        users = new ArrayList<>();
+        events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            users.add(testData.user());
+        }
+        title = "querycount-" + users.get(0).getId() + "-";
+        for (int i = 0; i < EVENTS; i++) {
+            Category category = testData.category();
+            User initiator = i % 2 == 0 ? users.get(0) : users.get(i);
+            events.add(testData.publishedEvent(initiator, category, title, 0));
+        }
+        compilationId = compilationService.create(new NewCompilationDto(eventIds(), true, title)).getId();
+    }
+
+    @Test
+    void publicEventListFetchesCategoriesAndInitiatorsInOneQuery() {
+        assertThat(statements(() -> eventService.getAllPublic(title, null, false, null, null, false,
+                "EVENT_DATE", 0, EVENTS, null, new MockHttpServletRequest())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void privateEventListFetchesCategoriesAndInitiatorsInOneQuery() {
+        assertThat(statements(() -> eventService.getAllPrivate(users.get(0).getId(), 0, EVENTS, null)))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void adminEventListFetchesCategoriesAndInitiatorsInOneQuery() {
+        Long[] userIds = users.stream().map(User::getId).toArray(Long[]::new);
+
+        assertThat(statements(() -> eventService.getAllByAdmin(userIds, null, null, null, null, 0, EVENTS)))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void eventByIdFetchesCategoryAndInitiatorInOneQuery() {
+        assertThat(statements(() -> eventService.getByIdPublic(events.get(1).getId())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void compilationListReadsSnapshotsInOneQuery() {
+        assertThat(statements(() -> compilationService.getAll(true, 0, 1000, null)))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void compilationListRebuildsStaleSnapshotsWithOneLoad() {
+        snapshotRepository.invalidateByEvents(eventIds());
+
+        assertThat(statements(() -> compilationService.getAll(true, 0, 1000, null)))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void compilationByIdReadsSnapshotInOneQuery() {
+        assertThat(statements(() -> compilationService.getById(compilationId)))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void compilationByIdRebuildsStaleSnapshotWithOneLoad() {
+        snapshotRepository.invalidateByEvents(eventIds());
+
+        assertThat(statements(() -> compilationService.getById(compilationId)))
+                .isEqualTo(4);
+    }
+
+    private Set<Long> eventIds() {
+        return events.stream().map(Event::getId).collect(Collectors.toSet());
+    }
+
+    private long statements(Runnable action) {
+        long[] statements = new long[1];
+        STATEMENTS.set(statements);
+        try {
+            transactionTemplate.executeWithoutResult(status -> action.run());
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements[0];
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? new StatementCountingDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    private static class StatementCountingDataSource extends DelegatingDataSource {
+
+        StatementCountingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        long[] statements = STATEMENTS.get();
+                        if (statements != null && (method.getName().startsWith("prepare")
+                                || method.getName().equals("createStatement"))) {
+                            statements[0]++;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
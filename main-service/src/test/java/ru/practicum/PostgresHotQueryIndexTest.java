@@ -0,0 +1,134 @@
+package ru.practicum;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("postgresql")
+class PostgresHotQueryIndexTest {
+
+    private static final String URL = System.getProperty("ewm.test.postgresql.url",
+            "jdbc:postgresql://localhost:5432/ExploreWithMeTest");
+    private static final String USERNAME = System.getProperty("ewm.test.postgresql.username", "sa");
+    private static final String PASSWORD = System.getProperty("ewm.test.postgresql.password", "password");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, USERNAME, PASSWORD);
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (name, email) " +
+                " SELECT 'user ' || g, 'user' || g || '@mail.ru' FROM generate_series(1, 2000) g");
+        jdbcTemplate.update("INSERT INTO categories (name) SELECT 'category ' || g FROM generate_series(1, 50) g");
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, create_date, description, event_date, " +
+                " initiator_id, lat, lon, paid, participant_limit, published_date, request_moderation, state, title, " +
+                " views, confirmed_requests) " +
+                " SELECT 'annotation ' || md5(g::text), 1 + g % 50, now(), " +
+                " 'description ' || md5((g * 7)::text) || ' ' || md5((g * 13)::text), " +
+                " now() + (g % 3650 - 1825) * interval '1 day', 1 + g % 2000, 55.75, 37.61, g % 2 = 0, g % 20, " +
+                " now(), true, CASE WHEN g % 10 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END, 'title ' || g, " +
+                " g % 5000, 0 " +
+                " FROM generate_series(1, 50000) g");
+        jdbcTemplate.update("INSERT INTO requests (event_id, requester_id, created, status) " +
+                " SELECT 1 + g % 50000, 1 + g / 50000, now(), " +
+                " CASE WHEN g % 4 = 0 THEN 'CONFIRMED' WHEN g % 4 = 1 THEN 'REJECTED' ELSE 'PENDING' END " +
+                " FROM generate_series(1, 200000) g");
+        jdbcTemplate.update("INSERT INTO compilations (pinned, title) " +
+                " SELECT g % 10 = 0, 'compilation ' || g FROM generate_series(1, 5000) g");
+        jdbcTemplate.update("INSERT INTO event_compilation (event_id, compilation_id) " +
+                " SELECT 1 + (g * 37) % 50000, 1 + g / 10 FROM generate_series(0, 49999) g");
+        jdbcTemplate.update("INSERT INTO comments (text, user_id, event_id, create_date) " +
+                " SELECT 'comment ' || g, 1 + g % 2000, 1 + g % 50000, now() FROM generate_series(1, 100000) g");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @Test
+    void publicListByEventDateUsesPublishedPartialIndex() {
+        assertThat(plan("SELECT * FROM events WHERE state = 'PUBLISHED' AND event_date > now() " +
+                " ORDER BY event_date, event_id LIMIT 10"))
+                .contains("idx_events_published_event_date");
+    }
+
+    @Test
+    void publicListByCategoryUsesStateCategoryIndex() {
+        assertThat(plan("SELECT * FROM events WHERE state = 'PUBLISHED' AND category_id IN (3, 4) " +
+                " AND paid = true AND event_date BETWEEN now() AND now() + interval '30 days' " +
+                " ORDER BY event_date, event_id LIMIT 10"))
+                .contains("idx_events_state_category_id_event_date_paid");
+    }
+
+    @Test
+    void publicListByViewsUsesStateViewsIndex() {
+        assertThat(plan("SELECT * FROM events WHERE state = 'PUBLISHED' " +
+                " ORDER BY views DESC, event_id DESC LIMIT 10"))
+                .contains("idx_events_state_views");
+    }
+
+    @Test
+    void publicTextSearchUsesTrigramIndexes() {
+        assertThat(plan("SELECT * FROM events WHERE state = 'PUBLISHED' " +
+                " AND (lower(annotation) LIKE '%c4ca4238a0%' OR lower(description) LIKE '%c4ca4238a0%')"))
+                .contains("idx_events_annotation_trgm")
+                .contains("idx_events_description_trgm");
+    }
+
+    @Test
+    void initiatorEventsUseInitiatorIndex() {
+        assertThat(plan("SELECT * FROM events WHERE initiator_id = 42 ORDER BY event_id LIMIT 10"))
+                .contains("idx_events_initiator_id_event_id");
+    }
+
+    @Test
+    void confirmedRequestCountUsesConfirmedPartialIndex() {
+        assertThat(plan("SELECT COUNT(*) FROM requests WHERE event_id = 42 AND status = 'CONFIRMED'"))
+                .contains("idx_requests_confirmed_event_id");
+    }
+
+    @Test
+    void requesterRequestsUseRequesterIndex() {
+        assertThat(plan("SELECT * FROM requests WHERE requester_id = 2 AND event_id = 42"))
+                .contains("idx_requests_requester_id_event_id");
+    }
+
+    @Test
+    void pinnedCompilationsUsePinnedIndex() {
+        assertThat(plan("SELECT * FROM compilations WHERE pinned = true ORDER BY compilation_id LIMIT 10"))
+                .contains("idx_compilations_pinned_compilation_id");
+    }
+
+    @Test
+    void compilationEventsUseCompilationIndex() {
+        assertThat(plan("SELECT event_id FROM event_compilation WHERE compilation_id = 42"))
+                .contains("idx_event_compilation_compilation_id");
+    }
+
+    @Test
+    void eventCommentsUseEventIndex() {
+        assertThat(plan("SELECT * FROM comments WHERE event_id = 42"))
+                .contains("idx_comments_event_id");
+    }
+
+    @Test
+    void userCommentsUseUserIndex() {
+        assertThat(plan("SELECT * FROM comments WHERE user_id = 42"))
+                .contains("idx_comments_user_id");
+    }
+
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
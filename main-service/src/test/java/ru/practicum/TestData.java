@@ -0,0 +1,72 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.storage.CategoryRepository;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.Location;
+import ru.practicum.event.model.State;
+import ru.practicum.event.storage.EventRepository;
+import ru.practicum.request.model.Request;
+import ru.practicum.request.model.Status;
+import ru.practicum.request.storage.RequestRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.storage.UserRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@TestComponent
+@RequiredArgsConstructor
+public class TestData {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+
+    public User user() {
+        int n = SEQUENCE.incrementAndGet();
+        return userRepository.save(User.builder()
+                .name("user " + n)
+                .email("user" + n + "@mail.ru")
+                .build());
+    }
+
+    public Category category() {
+        return categoryRepository.save(Category.builder()
+                .name("category " + SEQUENCE.incrementAndGet())
+                .build());
+    }
+
+    public Event publishedEvent(User initiator, Category category, String title, int participantLimit) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return eventRepository.save(Event.builder()
+                .annotation(title + " annotation")
+                .description(title + " description")
+                .title(title)
+                .category(category)
+                .initiator(initiator)
+                .createdOn(now)
+                .publishedOn(now)
+                .eventDate(now.plusDays(1 + SEQUENCE.incrementAndGet() % 30))
+                .location(new Location(55.75f, 37.61f))
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(true)
+                .state(State.PUBLISHED)
+                .build());
+    }
+
+    public Request request(Event event, User requester, Status status) {
+        return requestRepository.save(Request.builder()
+                .event(event)
+                .requester(requester)
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.TestData;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.service.EventService;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.request.dto.UpdateRequestStatusDto;
+import ru.practicum.request.model.Status;
+import ru.practicum.user.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(TestData.class)
+class ParticipantLimitRaceTest {
+
+    private static final int THREADS = 16;
+    private static final int PARTICIPANT_LIMIT = 3;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void singleConfirmationsDoNotExceedParticipantLimit() throws Exception {
+        User initiator = testData.user();
+        Event event = testData.publishedEvent(initiator, testData.category(), "race event", PARTICIPANT_LIMIT);
+        List<Long> requestIds = pendingRequests(event, THREADS);
+
+        race(i -> eventService.confirmEventRequestPrivate(initiator.getId(), event.getId(), requestIds.get(i)));
+
+        assertConfirmedRequests(event.getId());
+    }
+
+    @Test
+    void bulkConfirmationsDoNotExceedParticipantLimit() throws Exception {
+        User initiator = testData.user();
+        Event event = testData.publishedEvent(initiator, testData.category(), "race event", PARTICIPANT_LIMIT);
+        List<Long> requestIds = pendingRequests(event, THREADS * 2);
+
+        race(i -> eventService.updateEventRequestsPrivate(initiator.getId(), event.getId(),
+                new UpdateRequestStatusDto(requestIds.subList(2 * i, 2 * i + 2), Status.CONFIRMED)));
+
+        assertConfirmedRequests(event.getId());
+    }
+
+    @Test
+    void bulkConfirmationAgainstFullEventIsConflict() {
+        User initiator = testData.user();
+        Event event = testData.publishedEvent(initiator, testData.category(), "full event", 1);
+        eventService.updateEventRequestsPrivate(initiator.getId(), event.getId(),
+                new UpdateRequestStatusDto(pendingRequests(event, 1), Status.CONFIRMED));
+        List<Long> late = pendingRequests(event, 1);
+
+        assertThatThrownBy(() -> eventService.updateEventRequestsPrivate(initiator.getId(), event.getId(),
+                new UpdateRequestStatusDto(late, Status.CONFIRMED)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Limit of requests for the event is reached.");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM requests WHERE request_id = ?", String.class,
+                late.get(0))).isEqualTo(Status.PENDING.name());
+    }
+
+    private void race(IntConsumer action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int task = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        action.accept(task);
+                    } catch (RuntimeException e) {
+                        log.info("ParticipantLimitRaceTest: request rejected. {}", e.getMessage());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertConfirmedRequests(long eventId) {
+        Long confirmedRequests = jdbcTemplate.queryForObject(
+                "SELECT confirmed_requests FROM events WHERE event_id = ?", Long.class, eventId);
+        Long confirmedRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = 'CONFIRMED'", Long.class, eventId);
+
+        assertThat(confirmedRequests).isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(confirmedRows).isEqualTo(confirmedRequests);
+    }
+
+    private List<Long> pendingRequests(Event event, int count) {
+        List<Long> requestIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requestIds.add(testData.request(event, testData.user(), Status.PENDING).getId());
+        }
+        return requestIds;
+    }
+}
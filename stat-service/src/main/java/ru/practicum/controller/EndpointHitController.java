@@ -1,15 +1,28 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchResultDto;
+import ru.practicum.dto.HitChangesDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.model.StatViewForSpecific;
 import ru.practicum.service.EndpointHitService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -17,7 +30,10 @@ import java.util.List;
 @Slf4j
 public class EndpointHitController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final EndpointHitService endpointHitService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     public void create(@RequestBody EndpointHitDto endpointHitDto) {
@@ -25,10 +41,56 @@ public class EndpointHitController {
         log.info("EndpointHitController: create.");
     }
 
+    @PostMapping(value = "/hit/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public HitBatchResultDto createAll(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        log.info("EndpointHitController: createAll. Size {}.", endpointHitDtos.size());
+
+        return endpointHitService.createAll(endpointHitDtos.iterator());
+    }
+
+    @PostMapping(value = "/hit/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public HitBatchResultDto createAllStream(InputStream body) throws IOException {
+        log.info("EndpointHitController: createAllStream.");
+        ObjectReader reader = objectMapper.readerFor(EndpointHitDto.class);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Iterator<EndpointHitDto> endpointHitDtos = lines.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> parse(reader, line))
+                    .iterator();
+            return endpointHitService.createAll(endpointHitDtos);
+        }
+    }
+
     @GetMapping("/stats")
     public List<ViewStatsDto> getStats(StatViewForSpecific criteria) {
         log.info("EndpointHitController: getStats.");
 
         return endpointHitService.getStats(criteria);
     }
+
+    @GetMapping("/stats/changes")
+    public HitChangesDto getChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestParam(required = false) String app,
+                                    @RequestParam(defaultValue = "1000") int limit) {
+        log.info("EndpointHitController: getChanges. Since {}.", since);
+
+        return endpointHitService.getChanges(since, app, limit);
+    }
+
+    @GetMapping("/stats/totals")
+    public List<ViewStatsDto> getTotals(@RequestParam List<String> uris,
+                                        @RequestParam(required = false) String app) {
+        log.info("EndpointHitController: getTotals. Uris {}.", uris.size());
+
+        return endpointHitService.getTotals(uris, app);
+    }
+
+    private EndpointHitDto parse(ObjectReader reader, String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            log.info("EndpointHitController: createAllStream. Malformed line rejected. {}", e.getOriginalMessage());
+            return null;
+        }
+    }
 }
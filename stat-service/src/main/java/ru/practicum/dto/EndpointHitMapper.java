@@ -2,14 +2,15 @@ package ru.practicum.dto;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.ViewStats;
 
 @Component
 public class EndpointHitMapper {
-    public ViewStatsDto toDto(EndpointHit endpointHit, Integer hits) {
+    public ViewStatsDto toDto(ViewStats viewStats) {
         return ViewStatsDto.builder()
-                .app(endpointHit.getApp())
-                .uri(endpointHit.getUri())
-                .hits(hits)
+                .app(viewStats.getApp())
+                .uri(viewStats.getUri())
+                .hits(viewStats.getHits())
                 .build();
     }
 
@@ -22,8 +23,4 @@ public class EndpointHitMapper {
                 .timestamp(endpointHitDto.getTimestamp())
                 .build();
     }
-
-    public String toUri(EndpointHit endpointHit) {
-        return endpointHit.getUri();
-    }
 }
@@ -0,0 +1,13 @@
+package ru.practicum.dto;
+
+import lombok.*;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class HitBatchResultDto {
+    private int accepted;
+    private int rejected;
+}
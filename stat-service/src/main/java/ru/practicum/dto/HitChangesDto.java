@@ -0,0 +1,14 @@
+package ru.practicum.dto;
+
+import lombok.*;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class HitChangesDto {
+    private long cursor;
+    private List<ViewStatsDto> changes;
+}
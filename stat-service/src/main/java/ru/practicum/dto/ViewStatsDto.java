@@ -10,5 +10,5 @@ import lombok.*;
 public class ViewStatsDto {
     private String app;
     private String uri;
-    private int hits;
+    private long hits;
 }
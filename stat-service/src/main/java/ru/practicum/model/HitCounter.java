@@ -0,0 +1,13 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HitCounter {
+    private final String app;
+    private final String uri;
+    private final long hits;
+    private final long changeSeq;
+}
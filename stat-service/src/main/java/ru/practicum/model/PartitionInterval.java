@@ -0,0 +1,44 @@
+package ru.practicum.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+public enum PartitionInterval {
+    DAY(ChronoUnit.DAYS, DateTimeFormatter.ofPattern("yyyyMMdd")),
+    MONTH(ChronoUnit.MONTHS, DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter suffixFormat;
+
+    PartitionInterval(ChronoUnit unit, DateTimeFormatter suffixFormat) {
+        this.unit = unit;
+        this.suffixFormat = suffixFormat;
+    }
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        LocalDateTime day = dateTime.truncatedTo(ChronoUnit.DAYS);
+        return this == MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    public LocalDateTime plus(LocalDateTime start, long periods) {
+        return start.plus(periods, unit);
+    }
+
+    public String suffix(LocalDateTime start) {
+        return suffixFormat.format(start);
+    }
+
+    public LocalDateTime parseSuffix(String suffix) {
+        try {
+            return this == MONTH
+                    ? YearMonth.parse(suffix, suffixFormat).atDay(1).atStartOfDay()
+                    : LocalDate.parse(suffix, suffixFormat).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
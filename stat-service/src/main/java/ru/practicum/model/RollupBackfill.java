@@ -0,0 +1,15 @@
+package ru.practicum.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RollupBackfill {
+    private final long lastHitId;
+    private final long targetHitId;
+
+    public boolean isComplete() {
+        return lastHitId >= targetHitId;
+    }
+}
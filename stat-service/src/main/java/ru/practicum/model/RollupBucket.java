@@ -0,0 +1,29 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+import ru.practicum.util.HyperLogLog;
+import java.time.LocalDateTime;
+
+@Getter
+public class RollupBucket {
+
+    private final String app;
+    private final String uri;
+    private final LocalDateTime bucketStart;
+    private final HyperLogLog sketch;
+    private long hits;
+
+    public RollupBucket(String app, String uri, LocalDateTime bucketStart, boolean sketched) {
+        this.app = app;
+        this.uri = uri;
+        this.bucketStart = bucketStart;
+        this.sketch = sketched ? new HyperLogLog() : null;
+    }
+
+    public void add(String ip) {
+        hits++;
+        if (sketch != null && ip != null) {
+            sketch.offer(ip);
+        }
+    }
+}
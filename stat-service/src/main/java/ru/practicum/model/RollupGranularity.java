@@ -0,0 +1,37 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    DAY("hit_rollup_day", ChronoUnit.DAYS, true),
+    HOUR("hit_rollup_hour", ChronoUnit.HOURS, true),
+    MINUTE("hit_rollup_minute", ChronoUnit.MINUTES, false);
+
+    private final String table;
+    private final ChronoUnit unit;
+    private final boolean sketched;
+
+    RollupGranularity(String table, ChronoUnit unit, boolean sketched) {
+        this.table = table;
+        this.unit = unit;
+        this.sketched = sketched;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public boolean isSketched() {
+        return sketched;
+    }
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime dateTime) {
+        LocalDateTime floor = floor(dateTime);
+        return floor.equals(dateTime) ? floor : floor.plus(1, unit);
+    }
+}
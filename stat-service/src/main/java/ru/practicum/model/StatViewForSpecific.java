@@ -12,5 +12,13 @@ public class StatViewForSpecific {
     private String start;
     private String end;
     private List<String> uris;
-    private boolean unique;
+    private String unique;
+
+    public boolean isUnique() {
+        return Boolean.parseBoolean(unique) || isApprox();
+    }
+
+    public boolean isApprox() {
+        return "approx".equalsIgnoreCase(unique);
+    }
 }
@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+public interface ViewStats {
+
+    String getApp();
+
+    String getUri();
+
+    Long getHits();
+}
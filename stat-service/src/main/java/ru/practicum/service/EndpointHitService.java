@@ -1,16 +1,22 @@
 package ru.practicum.service;
 
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitBatchResultDto;
+import ru.practicum.dto.HitChangesDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.model.StatViewForSpecific;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 public interface EndpointHitService {
 
     void create(EndpointHitDto endpointHitDto);
 
+    HitBatchResultDto createAll(Iterator<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(StatViewForSpecific criteria);
 
-    Map<String, Integer> getHitByUriList(List<String> uris);
+    HitChangesDto getChanges(long since, String app, int limit);
+
+    List<ViewStatsDto> getTotals(List<String> uris, String app);
 }
@@ -1,81 +1,141 @@
 package ru.practicum.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import ru.practicum.storage.EndpointHitRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.storage.HitStore;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.EndpointHitMapper;
+import ru.practicum.dto.HitBatchResultDto;
+import ru.practicum.dto.HitChangesDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.model.EndpointHit;
 import ru.practicum.model.StatViewForSpecific;
 import ru.practicum.util.DateFormatterCustom;
-import java.math.BigInteger;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EndpointHitServiceImpl implements EndpointHitService {
 
     private final EndpointHitMapper endpointHitMapper;
-    private final EndpointHitRepository endpointHitRepository;
+    private final HitStore hitStore;
+    private final HitRollupService hitRollupService;
     private final DateFormatterCustom formatter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
+
+    public EndpointHitServiceImpl(EndpointHitMapper endpointHitMapper,
+                                  HitStore hitStore,
+                                  HitRollupService hitRollupService,
+                                  DateFormatterCustom formatter,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${stats.batch.chunk-size}") int batchChunkSize) {
+        this.endpointHitMapper = endpointHitMapper;
+        this.hitStore = hitStore;
+        this.hitRollupService = hitRollupService;
+        this.formatter = formatter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = batchChunkSize;
+    }
 
     @Override
     public void create(EndpointHitDto endpointHitDto) {
-        endpointHitRepository.save(endpointHitMapper.fromDto(endpointHitDto));
+        if (endpointHitDto.getTimestamp() == null) {
+            endpointHitDto.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        }
+        save(List.of(endpointHitMapper.fromDto(endpointHitDto)));
         log.info("EndpointHitService: create.");
     }
 
     @Override
-    public List<ViewStatsDto> getStats(StatViewForSpecific criteria) {
-        criteria.setStart(dateDecoder(criteria.getStart()));
-        criteria.setEnd(dateDecoder(criteria.getEnd()));
-        List<EndpointHit> endpointHits;
-        if (criteria.getUris() != null && !criteria.isUnique()) {
-            endpointHits = endpointHitRepository
-                    .findAllByTimestampBetweenAndUriIn(formatter.stringToDate(criteria.getStart()),
-                            formatter.stringToDate(criteria.getEnd()), criteria.getUris());
-        } else if (criteria.getUris() == null && criteria.isUnique()) {
-            endpointHits = endpointHitRepository.findAllByUniqueIp(formatter.stringToDate(criteria.getStart()),
-                    formatter.stringToDate(criteria.getEnd()));
-        } else if (criteria.getUris() != null && criteria.isUnique()) {
-            endpointHits = endpointHitRepository.findAllByUrisAndUniqueIp(formatter.stringToDate(criteria.getStart()),
-                    formatter.stringToDate(criteria.getEnd()), criteria.getUris());
-        } else {
-            endpointHits = endpointHitRepository.findAllByTimestampBetween(formatter.stringToDate(criteria.getStart()),
-                    formatter.stringToDate(criteria.getEnd()));
+    public HitBatchResultDto createAll(Iterator<EndpointHitDto> endpointHitDtos) {
+        int accepted = 0;
+        int rejected = 0;
+        List<EndpointHit> chunk = new ArrayList<>(batchChunkSize);
+        while (endpointHitDtos.hasNext()) {
+            EndpointHitDto endpointHitDto = endpointHitDtos.next();
+            if (!isValid(endpointHitDto)) {
+                rejected++;
+                continue;
+            }
+            if (endpointHitDto.getTimestamp() == null) {
+                endpointHitDto.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            }
+            chunk.add(endpointHitMapper.fromDto(endpointHitDto));
+            if (chunk.size() == batchChunkSize) {
+                save(chunk);
+                accepted += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk);
+            accepted += chunk.size();
         }
-        List<String> endpointUris = endpointHits.stream().map(endpointHitMapper::toUri).collect(Collectors.toList());
-        Map<String, Integer> hitCounts = getHitByUriList(endpointUris);
-        List<ViewStatsDto> viewStats = endpointHits
-                .stream()
-                .map((EndpointHit endpointHit) -> endpointHitMapper
-                        .toDto(endpointHit, hitCounts.get(endpointHit.getUri())))
-                .collect(Collectors.toList());
+        log.info("EndpointHitService: createAll. Accepted {}, rejected {}.", accepted, rejected);
+
+        return new HitBatchResultDto(accepted, rejected);
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(StatViewForSpecific criteria) {
+        LocalDateTime start = formatter.stringToDate(dateDecoder(criteria.getStart()));
+        LocalDateTime end = formatter.stringToDate(dateDecoder(criteria.getEnd()));
+        boolean hasUris = criteria.getUris() != null && !criteria.getUris().isEmpty();
         log.info("EndpointHitService: getStats.");
+        if (!criteria.isUnique()) {
+            return hitRollupService.countHits(start, end, hasUris ? criteria.getUris() : null);
+        }
+        if (criteria.isApprox()) {
+            return hitRollupService.estimateUniqueHits(start, end, hasUris ? criteria.getUris() : null);
+        }
+        return hitStore.countUniqueHits(start, end, hasUris ? criteria.getUris() : null);
+    }
+
+    @Override
+    public HitChangesDto getChanges(long since, String app, int limit) {
+        log.info("EndpointHitService: getChanges.");
 
-        return viewStats;
+        return hitRollupService.getChanges(since, app, limit);
     }
 
     @Override
-    public Map<String, Integer> getHitByUriList(List<String> uris) {
-        Map<String, Integer> results = new HashMap<>();
-        List<Object[]> countList = endpointHitRepository.getCountHitByUriList(uris);
-        for (Object[] count: countList) {
-            results.put(((String) count[0]), ((BigInteger) count[1]).intValue());
+    public List<ViewStatsDto> getTotals(List<String> uris, String app) {
+        log.info("EndpointHitService: getTotals.");
+
+        return hitRollupService.getTotals(uris, app);
+    }
+
+    private void save(List<EndpointHit> endpointHits) {
+        if (!hitStore.isTransactional()) {
+            hitStore.saveAll(endpointHits);
+            return;
         }
-        log.info("EndpointHitService: getHitByUriList.");
+        transactionTemplate.executeWithoutResult(status -> {
+            hitStore.saveAll(endpointHits);
+            hitRollupService.record(endpointHits);
+        });
+    }
 
-        return results;
+    private boolean isValid(EndpointHitDto endpointHitDto) {
+        return endpointHitDto != null
+                && isValidField(endpointHitDto.getApp(), 150)
+                && isValidField(endpointHitDto.getUri(), 150)
+                && isValidField(endpointHitDto.getIp(), 30);
     }
 
+    private boolean isValidField(String value, int maxLength) {
+        return value != null && !value.isBlank() && value.length() <= maxLength;
+    }
 
     private String dateDecoder(String date) {
         return URLDecoder.decode(date, StandardCharsets.UTF_8);
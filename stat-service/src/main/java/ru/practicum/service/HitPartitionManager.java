@@ -0,0 +1,171 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.PartitionInterval;
+import ru.practicum.model.PartitionRetentionPolicy;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.storage.HitPartitionRepository;
+import ru.practicum.storage.HitRollupRepository;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class HitPartitionManager {
+
+    private static final String PARTITION_PREFIX = "endpoint_hit_p";
+    private static final String DEFAULT_PARTITION = "endpoint_hit_default";
+
+    private final HitPartitionRepository hitPartitionRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final boolean enabled;
+    private final PartitionInterval interval;
+    private final int premakePeriods;
+    private final int retentionPeriods;
+    private final PartitionRetentionPolicy retentionPolicy;
+    private final long checkIntervalMs;
+    private final ScheduledExecutorService scheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong defaultRows;
+    private boolean partitioned;
+
+    public HitPartitionManager(HitPartitionRepository hitPartitionRepository,
+                               HitRollupRepository hitRollupRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${stats.partitions.enabled}") boolean enabled,
+                               @Value("${stats.partitions.interval}") PartitionInterval interval,
+                               @Value("${stats.partitions.premake-periods}") int premakePeriods,
+                               @Value("${stats.partitions.retention-periods}") int retentionPeriods,
+                               @Value("${stats.partitions.retention-policy}") PartitionRetentionPolicy retentionPolicy,
+                               @Value("${stats.partitions.check-interval-ms}") long checkIntervalMs) {
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.premakePeriods = premakePeriods;
+        this.retentionPeriods = retentionPeriods;
+        this.retentionPolicy = retentionPolicy;
+        this.checkIntervalMs = checkIntervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hit-partition-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultRows = meterRegistry.gauge("stats.partitions.default.rows", new AtomicLong());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("HitPartitionManager: partition management is off.");
+            return;
+        }
+        partitioned = hitPartitionRepository.isPartitioned();
+        if (!partitioned) {
+            log.info("HitPartitionManager: endpoint_hit isn't partitioned, only rollup retention is applied.");
+        }
+        maintain();
+        scheduler.scheduleWithFixedDelay(this::maintain, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("HitPartitionManager: shutdown.");
+    }
+
+    private void maintain() {
+        try {
+            LocalDateTime current = interval.floor(LocalDateTime.now());
+            if (partitioned) {
+                maintainPartitions(current);
+            }
+            if (retentionPeriods > 0) {
+                LocalDateTime horizon = interval.plus(current, -retentionPeriods);
+                if (partitioned) {
+                    expirePartitions(horizon);
+                }
+                int deleted = hitRollupRepository.deleteBefore(RollupGranularity.MINUTE, horizon);
+                if (deleted > 0) {
+                    log.info("HitPartitionManager: deleted {} minute rollups before {}.", deleted, horizon);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("HitPartitionManager: maintain failed. {}", e.getMessage());
+        }
+    }
+
+    private void maintainPartitions(LocalDateTime current) {
+        hitPartitionRepository.createDefaultPartition(DEFAULT_PARTITION);
+        for (int period = 0; period <= premakePeriods; period++) {
+            createPartition(interval.plus(current, period));
+        }
+        long rows = hitPartitionRepository.countRows(DEFAULT_PARTITION);
+        if (rows > 0) {
+            log.warn("HitPartitionManager: default partition holds {} rows, moving them to range partitions.", rows);
+            for (LocalDateTime from : hitPartitionRepository.findPeriods(DEFAULT_PARTITION, interval)) {
+                createPartition(from);
+            }
+            rows = hitPartitionRepository.countRows(DEFAULT_PARTITION);
+        }
+        defaultRows.set(rows);
+    }
+
+    private void createPartition(LocalDateTime from) {
+        String name = PARTITION_PREFIX + interval.suffix(from);
+        LocalDateTime to = interval.plus(from, 1);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!hitPartitionRepository.hasRows(DEFAULT_PARTITION, from, to)) {
+                    hitPartitionRepository.createPartition(name, from, to);
+                    return;
+                }
+                hitPartitionRepository.detachPartition(DEFAULT_PARTITION);
+                hitPartitionRepository.createPartition(name, from, to);
+                int moved = hitPartitionRepository.moveRows(DEFAULT_PARTITION, name, from, to);
+                hitPartitionRepository.attachDefaultPartition(DEFAULT_PARTITION);
+                log.info("HitPartitionManager: moved {} rows from {} to partition {}.", moved, DEFAULT_PARTITION, name);
+            });
+        } catch (DataAccessException e) {
+            log.warn("HitPartitionManager: can't create partition {}. {}", name, e.getMessage());
+        }
+    }
+
+    private void expirePartitions(LocalDateTime horizon) {
+        for (String name : hitPartitionRepository.findPartitionNames()) {
+            if (!name.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            String suffix = name.substring(PARTITION_PREFIX.length());
+            for (PartitionInterval candidate : PartitionInterval.values()) {
+                LocalDateTime start = candidate.parseSuffix(suffix);
+                if (start != null && !candidate.plus(start, 1).isAfter(horizon)) {
+                    expirePartition(name);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void expirePartition(String name) {
+        if (retentionPolicy == PartitionRetentionPolicy.DETACH) {
+            hitPartitionRepository.detachPartition(name);
+        } else {
+            hitPartitionRepository.dropPartition(name);
+        }
+        log.info("HitPartitionManager: {} partition {}.", retentionPolicy, name);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.HitChangesDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitRollupService {
+    void record(List<EndpointHit> endpointHits);
+
+    List<ViewStatsDto> countHits(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    List<ViewStatsDto> estimateUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    HitChangesDto getChanges(long since, String app, int limit);
+
+    List<ViewStatsDto> getTotals(List<String> uris, String app);
+}
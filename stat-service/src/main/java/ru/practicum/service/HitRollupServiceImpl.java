@@ -0,0 +1,280 @@
+package ru.practicum.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.HitChangesDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitCounter;
+import ru.practicum.model.RollupBackfill;
+import ru.practicum.model.RollupBucket;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.storage.EndpointHitBatchRepository;
+import ru.practicum.storage.HitCounterRepository;
+import ru.practicum.storage.HitRollupRepository;
+import ru.practicum.storage.HitStore;
+import ru.practicum.util.HyperLogLog;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class HitRollupServiceImpl implements HitRollupService {
+
+    private static final RollupGranularity[] GRANULARITIES = RollupGranularity.values();
+
+    private static final int SKETCHED_LEVELS = (int) Arrays.stream(GRANULARITIES)
+            .filter(RollupGranularity::isSketched)
+            .count();
+
+    private static final Comparator<RollupBucket> LOCK_ORDER = Comparator.comparing(RollupBucket::getUri)
+            .thenComparing(RollupBucket::getBucketStart)
+            .thenComparing(RollupBucket::getApp);
+
+    private final HitRollupRepository hitRollupRepository;
+    private final HitCounterRepository hitCounterRepository;
+    private final HitStore hitStore;
+    private final EndpointHitBatchRepository endpointHitBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
+    private final long backfillRetryMs;
+    private final ScheduledExecutorService scheduler;
+
+    public HitRollupServiceImpl(HitRollupRepository hitRollupRepository,
+                                HitCounterRepository hitCounterRepository,
+                                HitStore hitStore,
+                                EndpointHitBatchRepository endpointHitBatchRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${stats.batch.chunk-size}") int batchChunkSize,
+                                @Value("${stats.rollups.backfill-retry-ms}") long backfillRetryMs) {
+        this.hitRollupRepository = hitRollupRepository;
+        this.hitCounterRepository = hitCounterRepository;
+        this.hitStore = hitStore;
+        this.endpointHitBatchRepository = endpointHitBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = batchChunkSize;
+        this.backfillRetryMs = backfillRetryMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hit-rollup-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void backfill() {
+        RollupBackfill backfill = hitRollupRepository.findBackfill().orElseGet(this::startBackfill);
+        if (backfill.isComplete()) {
+            if (hitCounterRepository.isEmpty()) {
+                int counters = hitCounterRepository.backfillFrom(RollupGranularity.DAY);
+                log.info("HitRollupService: backfill. Initialized {} hit counters.", counters);
+            }
+            return;
+        }
+        log.info("HitRollupService: backfill. Resuming after hit {} up to {}.",
+                backfill.getLastHitId(), backfill.getTargetHitId());
+        scheduler.execute(() -> backfillRollups(backfill));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("HitRollupService: shutdown.");
+    }
+
+    private RollupBackfill startBackfill() {
+        long targetHitId = endpointHitBatchRepository.findMaxId();
+        RollupBackfill backfill = new RollupBackfill(hitRollupRepository.isEmpty() ? 0 : targetHitId, targetHitId);
+        hitRollupRepository.startBackfill(backfill);
+        return backfill;
+    }
+
+    private void backfillRollups(RollupBackfill backfill) {
+        long lastHitId = backfill.getLastHitId();
+        long total = 0;
+        try {
+            while (lastHitId < backfill.getTargetHitId() && !Thread.currentThread().isInterrupted()) {
+                List<EndpointHit> chunk = endpointHitBatchRepository.findAfter(lastHitId,
+                        backfill.getTargetHitId(), batchChunkSize);
+                long chunkLastHitId = chunk.isEmpty()
+                        ? backfill.getTargetHitId()
+                        : chunk.get(chunk.size() - 1).getId();
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!chunk.isEmpty()) {
+                        record(chunk);
+                    }
+                    hitRollupRepository.advanceBackfill(chunkLastHitId);
+                });
+                lastHitId = chunkLastHitId;
+                total += chunk.size();
+            }
+            log.info("HitRollupService: backfill. Rolled up {} hits, last hit {}.", total, lastHitId);
+        } catch (RuntimeException e) {
+            log.warn("HitRollupService: backfill failed after hit {}, retrying. {}", lastHitId, e.getMessage());
+            RollupBackfill remaining = new RollupBackfill(lastHitId, backfill.getTargetHitId());
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(() -> backfillRollups(remaining), backfillRetryMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void record(List<EndpointHit> endpointHits) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            Map<String, RollupBucket> buckets = new LinkedHashMap<>();
+            for (EndpointHit endpointHit : endpointHits) {
+                LocalDateTime bucketStart = granularity.floor(endpointHit.getTimestamp());
+                buckets.computeIfAbsent(keyOf(endpointHit.getApp(), endpointHit.getUri()) + '\n' + bucketStart,
+                                key -> new RollupBucket(endpointHit.getApp(), endpointHit.getUri(), bucketStart,
+                                        granularity.isSketched()))
+                        .add(endpointHit.getIp());
+            }
+            List<RollupBucket> ordered = buckets.values().stream()
+                    .sorted(LOCK_ORDER)
+                    .collect(Collectors.toList());
+            hitRollupRepository.addHits(granularity, ordered);
+            if (granularity.isSketched()) {
+                hitRollupRepository.mergeSketches(granularity, ordered);
+            }
+        }
+        Map<String, ViewStatsDto> counters = new TreeMap<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            ViewStatsDto counter = counters.computeIfAbsent(keyOf(endpointHit.getApp(), endpointHit.getUri()),
+                    key -> new ViewStatsDto(endpointHit.getApp(), endpointHit.getUri(), 0));
+            counter.setHits(counter.getHits() + 1);
+        }
+        hitCounterRepository.addHits(new ArrayList<>(counters.values()));
+    }
+
+    @Override
+    public HitChangesDto getChanges(long since, String app, int limit) {
+        List<HitCounter> changed = hitCounterRepository.findChangedSince(since, app, limit);
+        long cursor = changed.isEmpty() ? since : changed.get(changed.size() - 1).getChangeSeq();
+        log.info("HitRollupService: getChanges. Since {}, changed {}.", since, changed.size());
+
+        return new HitChangesDto(cursor, changed.stream()
+                .map(counter -> new ViewStatsDto(counter.getApp(), counter.getUri(), counter.getHits()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<ViewStatsDto> getTotals(List<String> uris, String app) {
+        List<ViewStatsDto> totals = hitCounterRepository.findTotals(uris, app);
+        log.info("HitRollupService: getTotals. Uris {}, found {}.", uris.size(), totals.size());
+
+        return totals;
+    }
+
+    @Override
+    public List<ViewStatsDto> countHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Map<String, ViewStatsDto> totals = new TreeMap<>();
+        for (Segment segment : decompose(start, end, GRANULARITIES.length)) {
+            List<ViewStatsDto> parts = segment.getGranularity() == null
+                    ? hitStore.countHits(segment.getFrom(), segment.getTo(), uris)
+                    : hitRollupRepository.sumHits(segment.getGranularity(), segment.getFrom(), segment.getTo(), uris);
+            for (ViewStatsDto part : parts) {
+                totals.merge(keyOf(part.getApp(), part.getUri()), part, (total, added) -> {
+                    total.setHits(total.getHits() + added.getHits());
+                    return total;
+                });
+            }
+        }
+        log.info("HitRollupService: countHits.");
+
+        return sortByHits(totals.values());
+    }
+
+    @Override
+    public List<ViewStatsDto> estimateUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<Segment> segments = decompose(start, end, SKETCHED_LEVELS);
+        if (segments.stream().allMatch(segment -> segment.getGranularity() == null)) {
+            return hitStore.countUniqueHits(start, end, uris);
+        }
+        Map<String, ViewStatsDto> keys = new TreeMap<>();
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        for (Segment segment : segments) {
+            if (segment.getGranularity() == null) {
+                hitStore.forEachDistinctIp(segment.getFrom(), segment.getTo(), uris,
+                        (app, uri, ip) -> sketchOf(keys, sketches, app, uri).offer(ip));
+            } else {
+                hitRollupRepository.forEachSketch(segment.getGranularity(), segment.getFrom(), segment.getTo(),
+                        uris, rs -> sketchOf(keys, sketches, rs.getString("app"), rs.getString("uri"))
+                                .merge(HyperLogLog.fromBytes(rs.getBytes("ip_sketch"))));
+            }
+        }
+        keys.forEach((key, viewStats) -> viewStats.setHits(sketches.get(key).cardinality()));
+        log.info("HitRollupService: estimateUniqueHits.");
+
+        return sortByHits(keys.values());
+    }
+
+    private List<Segment> decompose(LocalDateTime start, LocalDateTime end, int levels) {
+        List<Segment> segments = new ArrayList<>();
+        decompose(start, end.plusSeconds(1), 0, levels, segments);
+        return segments;
+    }
+
+    private void decompose(LocalDateTime from, LocalDateTime to, int level, int levels, List<Segment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == levels) {
+            segments.add(new Segment(null, from, to));
+            return;
+        }
+        RollupGranularity granularity = GRANULARITIES[level];
+        LocalDateTime lower = granularity.ceil(from);
+        LocalDateTime upper = granularity.floor(to);
+        if (!lower.isBefore(upper)) {
+            decompose(from, to, level + 1, levels, segments);
+            return;
+        }
+        decompose(from, lower, level + 1, levels, segments);
+        segments.add(new Segment(granularity, lower, upper));
+        decompose(upper, to, level + 1, levels, segments);
+    }
+
+    private List<ViewStatsDto> sortByHits(Collection<ViewStatsDto> viewStats) {
+        return viewStats.stream()
+                .sorted(Comparator.comparingLong(ViewStatsDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private HyperLogLog sketchOf(Map<String, ViewStatsDto> keys, Map<String, HyperLogLog> sketches,
+                                 String app, String uri) {
+        String key = keyOf(app, uri);
+        keys.computeIfAbsent(key, k -> new ViewStatsDto(app, uri, 0));
+        return sketches.computeIfAbsent(key, k -> new HyperLogLog());
+    }
+
+    private String keyOf(String app, String uri) {
+        return app + '\n' + uri;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Segment {
+        private final RollupGranularity granularity;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.storage.HitRollupRepository;
+import ru.practicum.storage.segment.SegmentHitStore;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.storage", havingValue = "segment")
+public class SegmentRollupTailer {
+
+    private final SegmentHitStore segmentHitStore;
+    private final HitRollupService hitRollupService;
+    private final HitRollupRepository hitRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
+    private final long tailIntervalMs;
+    private final ScheduledExecutorService scheduler;
+    private volatile long lastHitId;
+
+    public SegmentRollupTailer(SegmentHitStore segmentHitStore,
+                               HitRollupService hitRollupService,
+                               HitRollupRepository hitRollupRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${stats.batch.chunk-size}") int batchChunkSize,
+                               @Value("${stats.rollups.tail-interval-ms}") long tailIntervalMs) {
+        this.segmentHitStore = segmentHitStore;
+        this.hitRollupService = hitRollupService;
+        this.hitRollupRepository = hitRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = batchChunkSize;
+        this.tailIntervalMs = tailIntervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "segment-rollup-tailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("stats.rollups.tail.lag", this, tailer -> segmentHitStore.countAfter(tailer.lastHitId));
+    }
+
+    @PostConstruct
+    public void start() {
+        lastHitId = hitRollupRepository.findTail().orElseGet(() -> {
+            long lastId = segmentHitStore.lastId();
+            hitRollupRepository.startTail(lastId);
+            return lastId;
+        });
+        log.info("SegmentRollupTailer: start. Rolling up segment hits after {}.", lastHitId);
+        scheduler.scheduleWithFixedDelay(this::tail, tailIntervalMs, tailIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("SegmentRollupTailer: shutdown. Last rolled up hit {}.", lastHitId);
+    }
+
+    void tail() {
+        try {
+            List<EndpointHit> chunk;
+            do {
+                chunk = segmentHitStore.findAfter(lastHitId, batchChunkSize);
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                long chunkLastHitId = chunk.get(chunk.size() - 1).getId();
+                List<EndpointHit> rolledUp = chunk;
+                transactionTemplate.executeWithoutResult(status -> {
+                    hitRollupService.record(rolledUp);
+                    hitRollupRepository.advanceTail(chunkLastHitId);
+                });
+                lastHitId = chunkLastHitId;
+            } while (chunk.size() == batchChunkSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            log.warn("SegmentRollupTailer: tail failed after hit {}, retrying. {}", lastHitId, e.getMessage());
+        }
+    }
+}
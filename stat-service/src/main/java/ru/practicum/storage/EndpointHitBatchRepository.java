@@ -0,0 +1,69 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.EndpointHit;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Transactional
+    public void saveAll(List<EndpointHit> endpointHits) {
+        jdbcTemplate.batchUpdate("INSERT INTO endpoint_hit (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)",
+                endpointHits,
+                endpointHits.size(),
+                (ps, endpointHit) -> {
+                    ps.setString(1, endpointHit.getApp());
+                    ps.setString(2, endpointHit.getUri());
+                    ps.setString(3, endpointHit.getIp());
+                    ps.setTimestamp(4, Timestamp.valueOf(endpointHit.getTimestamp()));
+                });
+    }
+
+    public List<EndpointHit> findAfter(long id, long maxId, int limit) {
+        return jdbcTemplate.query("SELECT endpoint_hit_id, app, uri, ip, timestamp FROM endpoint_hit " +
+                        " WHERE endpoint_hit_id > ? AND endpoint_hit_id <= ? " +
+                        " AND uri IS NOT NULL AND ip IS NOT NULL AND timestamp IS NOT NULL " +
+                        " ORDER BY endpoint_hit_id LIMIT ?",
+                (rs, rowNum) -> EndpointHit.builder()
+                        .id(rs.getLong("endpoint_hit_id"))
+                        .app(rs.getString("app"))
+                        .uri(rs.getString("uri"))
+                        .ip(rs.getString("ip"))
+                        .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                        .build(),
+                id, maxId, limit);
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(endpoint_hit_id) FROM endpoint_hit", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<String> uris,
+                                  RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        String uriFilter = "";
+        if (uris != null) {
+            params.addValue("uris", uris);
+            uriFilter = " AND uri IN (:uris) ";
+        }
+        namedParameterJdbcTemplate.query("SELECT DISTINCT app, uri, ip FROM endpoint_hit " +
+                " WHERE timestamp >= :from AND timestamp < :to AND uri IS NOT NULL AND ip IS NOT NULL " +
+                uriFilter, params, handler);
+    }
+}
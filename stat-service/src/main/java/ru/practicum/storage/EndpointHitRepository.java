@@ -4,28 +4,32 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.ViewStats;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface EndpointHitRepository extends JpaRepository<EndpointHit, Long> {
 
-    List<EndpointHit> findAllByTimestampBetweenAndUriIn(LocalDateTime start, LocalDateTime end, List<String> uris);
-
-    @Query(value = "SELECT DISTINCT ON(ip) * FROM endpoint_hit  WHERE timestamp BETWEEN ?1 AND ?2 ", nativeQuery = true)
-    List<EndpointHit> findAllByUniqueIp(LocalDateTime start, LocalDateTime end);
-
-    @Query(value = "SELECT DISTINCT ON(ip) * FROM endpoint_hit  WHERE timestamp BETWEEN ?1 AND ?2 AND uri IN(?3)",
-            nativeQuery = true)
-    List<EndpointHit> findAllByUrisAndUniqueIp(LocalDateTime start, LocalDateTime end, List<String> uris);
-
-    List<EndpointHit> findAllByTimestampBetween(LocalDateTime start, LocalDateTime end);
-
-    @Query(value = "SELECT DISTINCT e.uri, COALESCE(r.count_hited, 0) AS count_hited " +
-            "FROM endpoint_hit e " +
-            "LEFT JOIN (SELECT uri, COUNT(*) AS count_hited FROM endpoint_hit GROUP BY uri) r ON r.uri = e.uri " +
-            " WHERE e.uri IN ?1",
-            nativeQuery = true)
-    List<Object[]> getCountHitByUriList(List<String> uris);
-
+    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits FROM EndpointHit h " +
+            " WHERE h.timestamp BETWEEN ?1 AND ?2 " +
+            " GROUP BY h.app, h.uri " +
+            " ORDER BY COUNT(DISTINCT h.ip) DESC")
+    List<ViewStats> countUniqueHits(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits FROM EndpointHit h " +
+            " WHERE h.timestamp BETWEEN ?1 AND ?2 AND h.uri IN ?3 " +
+            " GROUP BY h.app, h.uri " +
+            " ORDER BY COUNT(DISTINCT h.ip) DESC")
+    List<ViewStats> countUniqueHitsByUris(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(h) AS hits FROM EndpointHit h " +
+            " WHERE h.timestamp >= ?1 AND h.timestamp < ?2 " +
+            " GROUP BY h.app, h.uri")
+    List<ViewStats> countHitsInRange(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT h.app AS app, h.uri AS uri, COUNT(h) AS hits FROM EndpointHit h " +
+            " WHERE h.timestamp >= ?1 AND h.timestamp < ?2 AND h.uri IN ?3 " +
+            " GROUP BY h.app, h.uri")
+    List<ViewStats> countHitsInRangeByUris(LocalDateTime from, LocalDateTime to, List<String> uris);
 }
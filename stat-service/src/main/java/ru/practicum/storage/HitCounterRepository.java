@@ -0,0 +1,102 @@
+package ru.practicum.storage;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.HitCounter;
+import ru.practicum.model.RollupGranularity;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class HitCounterRepository {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO hit_counter (app, uri, hits, change_seq) " +
+            " VALUES (:app, :uri, :hits, nextval('hit_counter_seq')) " +
+            " ON CONFLICT (uri, app) DO UPDATE " +
+            " SET hits = hit_counter.hits + EXCLUDED.hits, change_seq = EXCLUDED.change_seq";
+
+    private static final String STANDARD_UPSERT = "MERGE INTO hit_counter t " +
+            " USING (VALUES (CAST(:app AS VARCHAR(150)), CAST(:uri AS VARCHAR(150)), CAST(:hits AS BIGINT))) " +
+            " s (app, uri, hits) " +
+            " ON t.uri = s.uri AND t.app = s.app " +
+            " WHEN MATCHED THEN UPDATE SET hits = t.hits + s.hits, change_seq = NEXT VALUE FOR hit_counter_seq " +
+            " WHEN NOT MATCHED THEN INSERT (app, uri, hits, change_seq) " +
+            " VALUES (s.app, s.uri, s.hits, NEXT VALUE FOR hit_counter_seq)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public HitCounterRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    public void addHits(List<ViewStatsDto> increments) {
+        jdbcTemplate.batchUpdate(postgres ? POSTGRES_UPSERT : STANDARD_UPSERT,
+                increments.stream()
+                        .map(increment -> new MapSqlParameterSource()
+                                .addValue("app", increment.getApp())
+                                .addValue("uri", increment.getUri())
+                                .addValue("hits", increment.getHits()))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    public List<HitCounter> findChangedSince(long since, String app, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("since", since)
+                .addValue("limit", limit);
+        String appFilter = "";
+        if (app != null) {
+            params.addValue("app", app);
+            appFilter = " AND app = :app ";
+        }
+
+        return jdbcTemplate.query("SELECT app, uri, hits, change_seq FROM hit_counter " +
+                        " WHERE change_seq > :since " + appFilter +
+                        " ORDER BY change_seq LIMIT :limit",
+                params,
+                (rs, rowNum) -> new HitCounter(rs.getString("app"),
+                        rs.getString("uri"),
+                        rs.getLong("hits"),
+                        rs.getLong("change_seq")));
+    }
+
+    public List<ViewStatsDto> findTotals(Collection<String> uris, String app) {
+        MapSqlParameterSource params = new MapSqlParameterSource("uris", uris);
+        String appFilter = "";
+        if (app != null) {
+            params.addValue("app", app);
+            appFilter = " AND app = :app ";
+        }
+
+        return jdbcTemplate.query("SELECT app, uri, hits FROM hit_counter " +
+                        " WHERE uri IN (:uris) " + appFilter +
+                        " ORDER BY hits DESC",
+                params,
+                (rs, rowNum) -> new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.getJdbcTemplate()
+                .queryForList("SELECT 1 FROM hit_counter LIMIT 1")
+                .isEmpty();
+    }
+
+    public int backfillFrom(RollupGranularity granularity) {
+        return jdbcTemplate.getJdbcTemplate().update(String.format("INSERT INTO hit_counter " +
+                " (app, uri, hits, change_seq) " +
+                " SELECT app, uri, hits, %s FROM " +
+                " (SELECT app, uri, SUM(hits) AS hits FROM %s GROUP BY app, uri) totals",
+                postgres ? "nextval('hit_counter_seq')" : "NEXT VALUE FOR hit_counter_seq",
+                granularity.getTable()));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.PartitionInterval;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+@Repository
+public class HitPartitionRepository {
+
+    private static final String PARENT = "endpoint_hit";
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public HitPartitionRepository(JdbcTemplate jdbcTemplate, DataSource dataSource)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    public boolean isPartitioned() {
+        if (!postgres) {
+            return false;
+        }
+        Integer partitioned = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_partitioned_table " +
+                " WHERE partrelid = to_regclass(?)", Integer.class, PARENT);
+        return partitioned != null && partitioned > 0;
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                " JOIN pg_class c ON c.oid = i.inhrelid " +
+                " WHERE i.inhparent = to_regclass(?)", String.class, PARENT);
+    }
+
+    public void createDefaultPartition(String name) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + PARENT + " DEFAULT");
+    }
+
+    public void createPartition(String name, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + PARENT +
+                " FOR VALUES FROM ('" + BOUND_FORMAT.format(from) + "') TO ('" + BOUND_FORMAT.format(to) + "')");
+    }
+
+    public void attachDefaultPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name + " DEFAULT");
+    }
+
+    public long countRows(String name) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + name, Long.class);
+        return rows == null ? 0 : rows;
+    }
+
+    public boolean hasRows(String name, LocalDateTime from, LocalDateTime to) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM " + name +
+                " WHERE timestamp >= ? AND timestamp < ? LIMIT 1", Integer.class, from, to).isEmpty();
+    }
+
+    public List<LocalDateTime> findPeriods(String name, PartitionInterval interval) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT date_trunc('" + interval.name().toLowerCase(Locale.ROOT) +
+                "', timestamp) FROM " + name, LocalDateTime.class);
+    }
+
+    public int moveRows(String source, String target, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update("WITH moved AS (DELETE FROM " + source +
+                " WHERE timestamp >= ? AND timestamp < ? RETURNING *) " +
+                " INSERT INTO " + target + " SELECT * FROM moved", from, to);
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+    }
+
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.storage;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.RollupBackfill;
+import ru.practicum.model.RollupBucket;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.util.HyperLogLog;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Repository
+public class HitRollupRepository {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO %1$s (app, uri, bucket_start, hits) " +
+            " VALUES (:app, :uri, :bucketStart, :hits) " +
+            " ON CONFLICT (uri, bucket_start, app) DO UPDATE SET hits = %1$s.hits + EXCLUDED.hits";
+
+    private static final String STANDARD_UPSERT = "MERGE INTO %1$s t " +
+            " USING (VALUES (CAST(:app AS VARCHAR(150)), CAST(:uri AS VARCHAR(150)), " +
+            " CAST(:bucketStart AS TIMESTAMP), CAST(:hits AS BIGINT))) s (app, uri, bucket_start, hits) " +
+            " ON t.uri = s.uri AND t.bucket_start = s.bucket_start AND t.app = s.app " +
+            " WHEN MATCHED THEN UPDATE SET hits = t.hits + s.hits " +
+            " WHEN NOT MATCHED THEN INSERT (app, uri, bucket_start, hits) " +
+            " VALUES (s.app, s.uri, s.bucket_start, s.hits)";
+
+    private static final int KEYS_PER_SELECT = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String upsert;
+
+    public HitRollupRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.upsert = "PostgreSQL".equals(product) ? POSTGRES_UPSERT : STANDARD_UPSERT;
+    }
+
+    public void addHits(RollupGranularity granularity, List<RollupBucket> buckets) {
+        jdbcTemplate.batchUpdate(String.format(upsert, granularity.getTable()),
+                buckets.stream()
+                        .map(bucket -> keyOf(bucket).addValue("hits", bucket.getHits()))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    public void mergeSketches(RollupGranularity granularity, List<RollupBucket> buckets) {
+        String select = String.format("SELECT app, uri, bucket_start, ip_sketch FROM %s " +
+                " WHERE (uri, bucket_start, app) IN (:keys) FOR UPDATE", granularity.getTable());
+        Map<List<Object>, byte[]> stored = new HashMap<>();
+        for (int from = 0; from < buckets.size(); from += KEYS_PER_SELECT) {
+            List<Object[]> keys = buckets.subList(from, Math.min(buckets.size(), from + KEYS_PER_SELECT)).stream()
+                    .map(bucket -> new Object[]{bucket.getUri(), Timestamp.valueOf(bucket.getBucketStart()),
+                            bucket.getApp()})
+                    .collect(Collectors.toList());
+            jdbcTemplate.query(select, new MapSqlParameterSource("keys", keys), (RowCallbackHandler) rs ->
+                    stored.put(List.of(rs.getString("app"), rs.getString("uri"),
+                            rs.getTimestamp("bucket_start").toLocalDateTime()), rs.getBytes("ip_sketch")));
+        }
+        SqlParameterSource[] updates = buckets.stream()
+                .map(bucket -> keyOf(bucket).addValue("sketch", HyperLogLog
+                        .fromBytes(stored.get(List.of(bucket.getApp(), bucket.getUri(), bucket.getBucketStart())))
+                        .merge(bucket.getSketch())
+                        .toBytes()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(String.format("UPDATE %s SET ip_sketch = :sketch " +
+                " WHERE uri = :uri AND bucket_start = :bucketStart AND app = :app", granularity.getTable()), updates);
+    }
+
+    public List<ViewStatsDto> sumHits(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                      List<String> uris) {
+        MapSqlParameterSource params = rangeOf(from, to, uris);
+
+        return jdbcTemplate.query(String.format("SELECT app, uri, SUM(hits) AS hits FROM %s " +
+                        " WHERE bucket_start >= :from AND bucket_start < :to %s " +
+                        " GROUP BY app, uri", granularity.getTable(), uriFilter(params)),
+                params,
+                (rs, rowNum) -> new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public void forEachSketch(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                              List<String> uris, RowCallbackHandler handler) {
+        MapSqlParameterSource params = rangeOf(from, to, uris);
+        jdbcTemplate.query(String.format("SELECT app, uri, ip_sketch FROM %s " +
+                " WHERE bucket_start >= :from AND bucket_start < :to AND ip_sketch IS NOT NULL %s",
+                granularity.getTable(), uriFilter(params)), params, handler);
+    }
+
+    public Optional<RollupBackfill> findBackfill() {
+        return jdbcTemplate.getJdbcTemplate().query("SELECT last_hit_id, target_hit_id FROM hit_rollup_backfill " +
+                        " WHERE backfill_id = 1",
+                (rs, rowNum) -> new RollupBackfill(rs.getLong("last_hit_id"), rs.getLong("target_hit_id")))
+                .stream().findFirst();
+    }
+
+    public void startBackfill(RollupBackfill backfill) {
+        jdbcTemplate.update("INSERT INTO hit_rollup_backfill (backfill_id, last_hit_id, target_hit_id) " +
+                        " VALUES (1, :lastHitId, :targetHitId)",
+                new MapSqlParameterSource()
+                        .addValue("lastHitId", backfill.getLastHitId())
+                        .addValue("targetHitId", backfill.getTargetHitId()));
+    }
+
+    public void advanceBackfill(long lastHitId) {
+        jdbcTemplate.update("UPDATE hit_rollup_backfill SET last_hit_id = :lastHitId WHERE backfill_id = 1",
+                new MapSqlParameterSource("lastHitId", lastHitId));
+    }
+
+    public Optional<Long> findTail() {
+        return jdbcTemplate.getJdbcTemplate().queryForList("SELECT last_hit_id FROM hit_rollup_tail " +
+                        " WHERE tail_id = 1", Long.class)
+                .stream().findFirst();
+    }
+
+    public void startTail(long lastHitId) {
+        jdbcTemplate.update("INSERT INTO hit_rollup_tail (tail_id, last_hit_id) VALUES (1, :lastHitId)",
+                new MapSqlParameterSource("lastHitId", lastHitId));
+    }
+
+    public void advanceTail(long lastHitId) {
+        jdbcTemplate.update("UPDATE hit_rollup_tail SET last_hit_id = :lastHitId WHERE tail_id = 1",
+                new MapSqlParameterSource("lastHitId", lastHitId));
+    }
+
+    public int deleteBefore(RollupGranularity granularity, LocalDateTime horizon) {
+        return jdbcTemplate.update(String.format("DELETE FROM %s WHERE bucket_start < :horizon",
+                granularity.getTable()), new MapSqlParameterSource("horizon", Timestamp.valueOf(horizon)));
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.getJdbcTemplate()
+                .queryForList("SELECT 1 FROM " + RollupGranularity.MINUTE.getTable() + " LIMIT 1")
+                .isEmpty();
+    }
+
+    private MapSqlParameterSource rangeOf(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        if (uris != null) {
+            params.addValue("uris", uris);
+        }
+        return params;
+    }
+
+    private String uriFilter(MapSqlParameterSource params) {
+        return params.hasValue("uris") ? " AND uri IN (:uris) " : "";
+    }
+
+    private MapSqlParameterSource keyOf(RollupBucket bucket) {
+        return new MapSqlParameterSource()
+                .addValue("app", bucket.getApp())
+                .addValue("uri", bucket.getUri())
+                .addValue("bucketStart", Timestamp.valueOf(bucket.getBucketStart()));
+    }
+}
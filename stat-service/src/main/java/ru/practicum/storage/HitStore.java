@@ -0,0 +1,21 @@
+package ru.practicum.storage;
+
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitStore {
+
+    void saveAll(List<EndpointHit> endpointHits);
+
+    boolean isTransactional();
+
+    List<EndpointHit> findAfter(long id, int limit);
+
+    List<ViewStatsDto> countHits(LocalDateTime from, LocalDateTime to, List<String> uris);
+
+    List<ViewStatsDto> countUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<String> uris, HitVisitor visitor);
+}
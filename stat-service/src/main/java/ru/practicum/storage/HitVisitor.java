@@ -0,0 +1,7 @@
+package ru.practicum.storage;
+
+@FunctionalInterface
+public interface HitVisitor {
+
+    void visit(String app, String uri, String ip);
+}
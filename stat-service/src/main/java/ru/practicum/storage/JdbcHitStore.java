@@ -0,0 +1,63 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitMapper;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.ViewStats;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.storage", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcHitStore implements HitStore {
+
+    private final EndpointHitRepository endpointHitRepository;
+    private final EndpointHitBatchRepository endpointHitBatchRepository;
+    private final EndpointHitMapper endpointHitMapper;
+
+    @Override
+    public void saveAll(List<EndpointHit> endpointHits) {
+        endpointHitBatchRepository.saveAll(endpointHits);
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public List<EndpointHit> findAfter(long id, int limit) {
+        return endpointHitBatchRepository.findAfter(id, Long.MAX_VALUE, limit);
+    }
+
+    @Override
+    public List<ViewStatsDto> countHits(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        return toDto(uris == null
+                ? endpointHitRepository.countHitsInRange(from, to)
+                : endpointHitRepository.countHitsInRangeByUris(from, to, uris));
+    }
+
+    @Override
+    public List<ViewStatsDto> countUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return toDto(uris == null
+                ? endpointHitRepository.countUniqueHits(start, end)
+                : endpointHitRepository.countUniqueHitsByUris(start, end, uris));
+    }
+
+    @Override
+    public void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<String> uris, HitVisitor visitor) {
+        endpointHitBatchRepository.forEachDistinctIp(from, to, uris,
+                rs -> visitor.visit(rs.getString("app"), rs.getString("uri"), rs.getString("ip")));
+    }
+
+    private List<ViewStatsDto> toDto(List<ViewStats> viewStats) {
+        return viewStats.stream()
+                .map(endpointHitMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
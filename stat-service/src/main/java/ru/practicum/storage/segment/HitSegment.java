@@ -0,0 +1,190 @@
+package ru.practicum.storage.segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class HitSegment {
+
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x45574d48;
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int BASE_OFFSET = 8;
+    private static final int ROWS_OFFSET = 16;
+    private static final int MIN_OFFSET = 24;
+    private static final int MAX_OFFSET = 32;
+
+    private final long number;
+    private final int capacity;
+    private final long base;
+    private final MappedByteBuffer buffer;
+    private final IntBuffer apps;
+    private final IntBuffer uris;
+    private final IntBuffer ips;
+    private final IntBuffer seconds;
+    private volatile int rows;
+    private volatile long minSecond;
+    private volatile long maxSecond;
+    private long pendingMin;
+    private long pendingMax;
+
+    private HitSegment(long number, MappedByteBuffer buffer) {
+        this.number = number;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.base = buffer.getLong(BASE_OFFSET);
+        this.rows = buffer.getInt(ROWS_OFFSET);
+        this.minSecond = buffer.getLong(MIN_OFFSET);
+        this.maxSecond = buffer.getLong(MAX_OFFSET);
+        this.pendingMin = minSecond;
+        this.pendingMax = maxSecond;
+        this.apps = column(0);
+        this.uris = column(1);
+        this.ips = column(2);
+        this.seconds = column(3);
+    }
+
+    static HitSegment create(Path file, long number, int capacity, long base) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + 16L * capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putLong(BASE_OFFSET, base);
+            buffer.putInt(ROWS_OFFSET, 0);
+            buffer.putLong(MIN_OFFSET, Long.MAX_VALUE);
+            buffer.putLong(MAX_OFFSET, Long.MIN_VALUE);
+            return new HitSegment(number, buffer);
+        }
+    }
+
+    static HitSegment open(Path file, long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a hit segment: " + file);
+            }
+            return new HitSegment(number, buffer);
+        }
+    }
+
+    long getNumber() {
+        return number;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    boolean fits(int row, long second) {
+        long delta = second - base;
+        return row < capacity && delta >= Integer.MIN_VALUE && delta <= Integer.MAX_VALUE;
+    }
+
+    void put(int row, int app, int uri, int ip, long second) {
+        apps.put(row, app);
+        uris.put(row, uri);
+        ips.put(row, ip);
+        seconds.put(row, (int) (second - base));
+        pendingMin = Math.min(pendingMin, second);
+        pendingMax = Math.max(pendingMax, second);
+    }
+
+    void publish(int rows) {
+        buffer.putLong(MIN_OFFSET, pendingMin);
+        buffer.putLong(MAX_OFFSET, pendingMax);
+        buffer.putInt(ROWS_OFFSET, rows);
+        minSecond = pendingMin;
+        maxSecond = pendingMax;
+        this.rows = rows;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    int app(int row) {
+        return apps.get(row);
+    }
+
+    int uri(int row) {
+        return uris.get(row);
+    }
+
+    int ip(int row) {
+        return ips.get(row);
+    }
+
+    long second(int row) {
+        return base + seconds.get(row);
+    }
+
+    void scan(long fromSecond, long toSecond, boolean withIps, BlockConsumer consumer) {
+        int published = rows;
+        if (published == 0 || maxSecond < fromSecond || minSecond >= toSecond) {
+            return;
+        }
+        int lo = (int) Math.max(fromSecond - base, Integer.MIN_VALUE);
+        int hi = (int) Math.min(toSecond - 1 - base, Integer.MAX_VALUE);
+        if (lo > hi) {
+            return;
+        }
+        IntBuffer secondColumn = seconds.duplicate();
+        IntBuffer appColumn = apps.duplicate();
+        IntBuffer uriColumn = uris.duplicate();
+        IntBuffer ipColumn = ips.duplicate();
+        int[] secondBlock = new int[BLOCK_SIZE];
+        int[] appBlock = new int[BLOCK_SIZE];
+        int[] uriBlock = new int[BLOCK_SIZE];
+        int[] ipBlock = withIps ? new int[BLOCK_SIZE] : null;
+        int[] selection = new int[BLOCK_SIZE];
+        for (int start = 0; start < published; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, published - start);
+            secondColumn.position(start);
+            secondColumn.get(secondBlock, 0, length);
+            int selected = 0;
+            for (int i = 0; i < length; i++) {
+                int second = secondBlock[i];
+                selection[selected] = i;
+                selected += second >= lo & second <= hi ? 1 : 0;
+            }
+            if (selected == 0) {
+                continue;
+            }
+            appColumn.position(start);
+            appColumn.get(appBlock, 0, length);
+            uriColumn.position(start);
+            uriColumn.get(uriBlock, 0, length);
+            if (withIps) {
+                ipColumn.position(start);
+                ipColumn.get(ipBlock, 0, length);
+            }
+            consumer.accept(appBlock, uriBlock, ipBlock, selection, selected);
+        }
+    }
+
+    private IntBuffer column(int index) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_BYTES + 4 * capacity * index);
+        ByteBuffer slice = view.slice();
+        slice.limit(4 * capacity);
+        return slice.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    @FunctionalInterface
+    interface BlockConsumer {
+
+        void accept(int[] apps, int[] uris, int[] ips, int[] selection, int selected);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.storage.segment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class SegmentDictionary implements Closeable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final DataOutputStream log;
+    private volatile String[] values = new String[1024];
+    private volatile int size;
+
+    SegmentDictionary(Path file) throws IOException {
+        long validLength = 0;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    String value = in.readUTF();
+                    add(value);
+                    validLength += 2 + utfLength(value);
+                }
+            } catch (EOFException | UTFDataFormatException e) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+        }
+        this.log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    int idOf(String value) throws IOException {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        log.writeUTF(value);
+        return add(value);
+    }
+
+    int find(String value) {
+        return ids.getOrDefault(value, -1);
+    }
+
+    String valueOf(int id) {
+        return values[id];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void flush() throws IOException {
+        log.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private int add(String value) {
+        int id = size;
+        String[] current = values;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = value;
+        values = current;
+        ids.put(value, id);
+        size = id + 1;
+        return id;
+    }
+
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,398 @@
+package ru.practicum.storage.segment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.storage.EndpointHitBatchRepository;
+import ru.practicum.storage.HitStore;
+import ru.practicum.storage.HitVisitor;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stats.storage", havingValue = "segment")
+public class SegmentHitStore implements HitStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".hits";
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+    private static final String IMPORT_FILE = "jdbc-import";
+
+    private final Path directory;
+    private final int rowsPerSegment;
+    private final EndpointHitBatchRepository endpointHitBatchRepository;
+    private final int importChunkSize;
+    private final SegmentDictionary apps;
+    private final SegmentDictionary uris;
+    private final SegmentDictionary ips;
+    private final List<HitSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object appendLock = new Object();
+
+    public SegmentHitStore(@Value("${stats.segment.dir}") String directory,
+                           @Value("${stats.segment.rows-per-segment}") int rowsPerSegment,
+                           EndpointHitBatchRepository endpointHitBatchRepository,
+                           @Value("${stats.batch.chunk-size}") int importChunkSize) throws IOException {
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.rowsPerSegment = rowsPerSegment;
+        this.endpointHitBatchRepository = endpointHitBatchRepository;
+        this.importChunkSize = importChunkSize;
+        this.apps = new SegmentDictionary(this.directory.resolve("apps.dict"));
+        this.uris = new SegmentDictionary(this.directory.resolve("uris.dict"));
+        this.ips = new SegmentDictionary(this.directory.resolve("ips.dict"));
+        try (Stream<Path> files = Files.list(this.directory)) {
+            List<Path> segmentFiles = files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (Path file : segmentFiles) {
+                segments.add(HitSegment.open(file, segmentNumber(file)));
+            }
+        }
+        log.info("SegmentHitStore: opened {} segments in {}.", segments.size(), this.directory);
+    }
+
+    @PostConstruct
+    public void importJdbcHits() throws IOException {
+        Path importFile = directory.resolve(IMPORT_FILE);
+        long[] progress;
+        if (Files.exists(importFile)) {
+            progress = Arrays.stream(Files.readString(importFile).trim().split(" "))
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+        } else if (segments.isEmpty()) {
+            progress = new long[]{0, endpointHitBatchRepository.findMaxId(), 0, 0};
+            writeImportProgress(importFile, progress);
+        } else {
+            progress = new long[]{0, 0, 0, 0};
+            writeImportProgress(importFile, progress);
+        }
+        long lastHitId = progress[0];
+        long targetHitId = progress[1];
+        if (lastHitId >= targetHitId) {
+            return;
+        }
+        truncate((int) progress[2], (int) progress[3]);
+        log.info("SegmentHitStore: importing endpoint_hit after id {} up to id {}.", lastHitId, targetHitId);
+        while (lastHitId < targetHitId) {
+            List<EndpointHit> chunk = endpointHitBatchRepository.findAfter(lastHitId, targetHitId, importChunkSize);
+            if (chunk.isEmpty()) {
+                lastHitId = targetHitId;
+            } else {
+                lastHitId = chunk.get(chunk.size() - 1).getId();
+                append(chunk);
+                segments.get(segments.size() - 1).force();
+            }
+            HitSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            writeImportProgress(importFile, new long[]{lastHitId, targetHitId, segments.size(),
+                    last == null ? 0 : last.getRows()});
+        }
+        log.info("SegmentHitStore: imported endpoint_hit up to id {} into {} segments.", targetHitId, segments.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            segments.forEach(HitSegment::force);
+            apps.close();
+            uris.close();
+            ips.close();
+        }
+        log.info("SegmentHitStore: close.");
+    }
+
+    @Override
+    public void saveAll(List<EndpointHit> endpointHits) {
+        append(endpointHits);
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    public long lastId() {
+        HitSegment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        return segment == null ? 0 : segment.getNumber() << 32 | segment.getRows();
+    }
+
+    public long countAfter(long id) {
+        long afterSegment = id >>> 32;
+        long count = 0;
+        for (HitSegment segment : segments) {
+            if (segment.getNumber() > afterSegment) {
+                count += segment.getRows();
+            } else if (segment.getNumber() == afterSegment) {
+                count += Math.max(0, segment.getRows() - (id & ROW_MASK));
+            }
+        }
+        return count;
+    }
+
+    private void append(List<EndpointHit> endpointHits) {
+        synchronized (appendLock) {
+            try {
+                HitSegment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                int row = segment == null ? 0 : segment.getRows();
+                for (EndpointHit endpointHit : endpointHits) {
+                    long second = toSecond(endpointHit.getTimestamp());
+                    if (segment == null || !segment.fits(row, second)) {
+                        if (segment != null) {
+                            segment.publish(row);
+                            segment.force();
+                        }
+                        segment = createSegment(segment == null ? 0 : segment.getNumber() + 1, second);
+                        row = 0;
+                    }
+                    segment.put(row,
+                            apps.idOf(endpointHit.getApp()),
+                            uris.idOf(endpointHit.getUri()),
+                            ips.idOf(endpointHit.getIp()),
+                            second);
+                    endpointHit.setId(idOf(segment.getNumber(), row));
+                    row++;
+                }
+                apps.flush();
+                uris.flush();
+                ips.flush();
+                if (segment != null) {
+                    segment.publish(row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public List<EndpointHit> findAfter(long id, int limit) {
+        long afterSegment = id >>> 32;
+        List<EndpointHit> endpointHits = new ArrayList<>(limit);
+        for (HitSegment segment : segments) {
+            if (segment.getNumber() < afterSegment) {
+                continue;
+            }
+            int rows = segment.getRows();
+            int row = segment.getNumber() == afterSegment ? (int) (id & ROW_MASK) : 0;
+            for (; row < rows && endpointHits.size() < limit; row++) {
+                endpointHits.add(EndpointHit.builder()
+                        .id(idOf(segment.getNumber(), row))
+                        .app(apps.valueOf(segment.app(row)))
+                        .uri(uris.valueOf(segment.uri(row)))
+                        .ip(ips.valueOf(segment.ip(row)))
+                        .timestamp(LocalDateTime.ofEpochSecond(segment.second(row), 0, ZoneOffset.UTC))
+                        .build());
+            }
+            if (endpointHits.size() == limit) {
+                break;
+            }
+        }
+        return endpointHits;
+    }
+
+    @Override
+    public List<ViewStatsDto> countHits(LocalDateTime from, LocalDateTime to, List<String> uriNames) {
+        boolean[] uriFilter = uriFilter(uriNames);
+        long[][] counts = new long[apps.size()][];
+        for (HitSegment segment : segments) {
+            segment.scan(toSecond(from), toSecond(to), false, (appBlock, uriBlock, ipBlock, selection, selected) -> {
+                for (int i = 0; i < selected; i++) {
+                    int row = selection[i];
+                    int uri = uriBlock[row];
+                    int app = appBlock[row];
+                    if (app < counts.length && (uriFilter == null || uri < uriFilter.length && uriFilter[uri])) {
+                        countersOf(counts, app, uri)[uri]++;
+                    }
+                }
+            });
+        }
+        List<ViewStatsDto> viewStats = new ArrayList<>();
+        for (int app = 0; app < counts.length; app++) {
+            long[] appCounts = counts[app];
+            for (int uri = 0; appCounts != null && uri < appCounts.length; uri++) {
+                if (appCounts[uri] > 0) {
+                    viewStats.add(new ViewStatsDto(apps.valueOf(app), uris.valueOf(uri), appCounts[uri]));
+                }
+            }
+        }
+        return viewStats;
+    }
+
+    @Override
+    public List<ViewStatsDto> countUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uriNames) {
+        List<ViewStatsDto> viewStats = new ArrayList<>();
+        LongList[] pairs = distinctPairs(toSecond(start), toSecond(end) + 1, uriNames);
+        for (int app = 0; app < pairs.length; app++) {
+            if (pairs[app] == null) {
+                continue;
+            }
+            long[] values = pairs[app].values;
+            int size = pairs[app].size;
+            for (int i = 0; i < size; ) {
+                int uri = (int) (values[i] >>> 32);
+                int next = i;
+                while (next < size && (int) (values[next] >>> 32) == uri) {
+                    next++;
+                }
+                viewStats.add(new ViewStatsDto(apps.valueOf(app), uris.valueOf(uri), next - i));
+                i = next;
+            }
+        }
+        viewStats.sort(Comparator.comparingLong(ViewStatsDto::getHits).reversed());
+        return viewStats;
+    }
+
+    @Override
+    public void forEachDistinctIp(LocalDateTime from, LocalDateTime to, List<String> uriNames, HitVisitor visitor) {
+        LongList[] pairs = distinctPairs(toSecond(from), toSecond(to), uriNames);
+        for (int app = 0; app < pairs.length; app++) {
+            for (int i = 0; pairs[app] != null && i < pairs[app].size; i++) {
+                long pair = pairs[app].values[i];
+                visitor.visit(apps.valueOf(app), uris.valueOf((int) (pair >>> 32)), ips.valueOf((int) pair));
+            }
+        }
+    }
+
+    private LongList[] distinctPairs(long fromSecond, long toSecond, List<String> uriNames) {
+        boolean[] uriFilter = uriFilter(uriNames);
+        LongList[] pairs = new LongList[apps.size()];
+        for (HitSegment segment : segments) {
+            segment.scan(fromSecond, toSecond, true, (appBlock, uriBlock, ipBlock, selection, selected) -> {
+                for (int i = 0; i < selected; i++) {
+                    int row = selection[i];
+                    int uri = uriBlock[row];
+                    int app = appBlock[row];
+                    if (app < pairs.length && (uriFilter == null || uri < uriFilter.length && uriFilter[uri])) {
+                        if (pairs[app] == null) {
+                            pairs[app] = new LongList();
+                        }
+                        pairs[app].add((long) uri << 32 | ipBlock[row]);
+                    }
+                }
+            });
+        }
+        for (LongList list : pairs) {
+            if (list != null) {
+                list.distinct();
+            }
+        }
+        return pairs;
+    }
+
+    private boolean[] uriFilter(List<String> uriNames) {
+        if (uriNames == null) {
+            return null;
+        }
+        boolean[] filter = new boolean[uris.size()];
+        for (String uriName : uriNames) {
+            int uri = uris.find(uriName);
+            if (uri >= 0 && uri < filter.length) {
+                filter[uri] = true;
+            }
+        }
+        return filter;
+    }
+
+    private long[] countersOf(long[][] counts, int app, int uri) {
+        long[] appCounts = counts[app];
+        if (appCounts == null || uri >= appCounts.length) {
+            appCounts = appCounts == null
+                    ? new long[Math.max(uris.size(), uri + 1)]
+                    : Arrays.copyOf(appCounts, Math.max(uris.size(), uri + 1));
+            counts[app] = appCounts;
+        }
+        return appCounts;
+    }
+
+    private void truncate(int segmentCount, int rows) throws IOException {
+        while (segments.size() > segmentCount) {
+            HitSegment segment = segments.remove(segments.size() - 1);
+            Files.delete(segmentFile(segment.getNumber()));
+        }
+        if (segmentCount > 0 && segments.get(segmentCount - 1).getRows() > rows) {
+            HitSegment segment = segments.get(segmentCount - 1);
+            segment.publish(rows);
+            segment.force();
+        }
+    }
+
+    private void writeImportProgress(Path importFile, long[] progress) throws IOException {
+        Path tmp = directory.resolve(IMPORT_FILE + ".tmp");
+        Files.writeString(tmp, Arrays.stream(progress)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(" ")));
+        Files.move(tmp, importFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private HitSegment createSegment(long number, long base) throws IOException {
+        Path file = segmentFile(number);
+        HitSegment segment = HitSegment.create(file, number, rowsPerSegment, base);
+        segments.add(segment);
+        log.info("SegmentHitStore: created segment {}.", file.getFileName());
+        return segment;
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private long idOf(long segmentNumber, int row) {
+        return segmentNumber << 32 | (row + 1L);
+    }
+
+    private long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static class LongList {
+        private static final int COMPACT_THRESHOLD = 1 << 20;
+
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                if (size >= COMPACT_THRESHOLD) {
+                    distinct();
+                }
+                if (size > values.length / 2) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            values[size++] = value;
+        }
+
+        void distinct() {
+            Arrays.sort(values, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || values[i] != values[unique - 1]) {
+                    values[unique++] = values[i];
+                }
+            }
+            size = unique;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+CREATE SEQUENCE IF NOT EXISTS endpoint_hit_id_seq;
+
+CREATE TABLE IF NOT EXISTS endpoint_hit (
+                                            endpoint_hit_id BIGINT NOT NULL DEFAULT nextval('endpoint_hit_id_seq'),
+                                            app VARCHAR(150) NOT NULL,
+                                            uri VARCHAR(150),
+                                            ip VARCHAR(30),
+                                            timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                            CONSTRAINT endpoint_hit_id_pk PRIMARY KEY (endpoint_hit_id, timestamp)
+) PARTITION BY RANGE (timestamp);
@@ -5,4 +5,62 @@ CREATE TABLE IF NOT EXISTS endpoint_hit (
                                             ip VARCHAR(30),
                                             timestamp TIMESTAMP WITHOUT TIME ZONE,
                                             CONSTRAINT endpoint_hit_id_pk PRIMARY KEY (endpoint_hit_id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_uri_timestamp ON endpoint_hit (uri, timestamp);
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_timestamp ON endpoint_hit (timestamp);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_minute (
+                                                 app VARCHAR(150) NOT NULL,
+                                                 uri VARCHAR(150) NOT NULL,
+                                                 bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                                 hits BIGINT NOT NULL,
+                                                 CONSTRAINT hit_rollup_minute_pk PRIMARY KEY (uri, bucket_start, app)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_hour (
+                                               app VARCHAR(150) NOT NULL,
+                                               uri VARCHAR(150) NOT NULL,
+                                               bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                               hits BIGINT NOT NULL,
+                                               ip_sketch BYTEA,
+                                               CONSTRAINT hit_rollup_hour_pk PRIMARY KEY (uri, bucket_start, app)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_day (
+                                              app VARCHAR(150) NOT NULL,
+                                              uri VARCHAR(150) NOT NULL,
+                                              bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                                              hits BIGINT NOT NULL,
+                                              ip_sketch BYTEA,
+                                              CONSTRAINT hit_rollup_day_pk PRIMARY KEY (uri, bucket_start, app)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_minute_bucket_start ON hit_rollup_minute (bucket_start);
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_hour_bucket_start ON hit_rollup_hour (bucket_start);
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_day_bucket_start ON hit_rollup_day (bucket_start);
+
+CREATE SEQUENCE IF NOT EXISTS hit_counter_seq;
+
+CREATE TABLE IF NOT EXISTS hit_counter (
+                                           app VARCHAR(150) NOT NULL,
+                                           uri VARCHAR(150) NOT NULL,
+                                           hits BIGINT NOT NULL,
+                                           change_seq BIGINT NOT NULL,
+                                           CONSTRAINT hit_counter_pk PRIMARY KEY (uri, app)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_counter_change_seq ON hit_counter (change_seq);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_backfill (
+                                                   backfill_id INTEGER NOT NULL,
+                                                   last_hit_id BIGINT NOT NULL,
+                                                   target_hit_id BIGINT NOT NULL,
+                                                   CONSTRAINT hit_rollup_backfill_pk PRIMARY KEY (backfill_id)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_tail (
+                                               tail_id INTEGER NOT NULL,
+                                               last_hit_id BIGINT NOT NULL,
+                                               CONSTRAINT hit_rollup_tail_pk PRIMARY KEY (tail_id)
+);
@@ -0,0 +1,118 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.storage.EndpointHitBatchRepository;
+import ru.practicum.storage.HitRollupRepository;
+import ru.practicum.storage.segment.SegmentHitStore;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SegmentRollupTailerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private SegmentHitStore store;
+    private HitRollupService hitRollupService;
+    private HitRollupRepository hitRollupRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SegmentRollupTailer tailer;
+
+    @BeforeEach
+    void open() throws IOException {
+        store = new SegmentHitStore(directory.toString(), 100, mock(EndpointHitBatchRepository.class), 2);
+        hitRollupService = mock(HitRollupService.class);
+        hitRollupRepository = mock(HitRollupRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        tailer = new SegmentRollupTailer(store, hitRollupService, hitRollupRepository,
+                mock(PlatformTransactionManager.class), meterRegistry, 2, 3600000);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        tailer.shutdown();
+        store.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rollsUpOnlyHitsAppendedAfterStart() {
+        store.saveAll(hits(1, 3));
+        tailer.start();
+        verify(hitRollupRepository).startTail(3);
+
+        store.saveAll(hits(4, 8));
+        assertThat(lag()).isEqualTo(5);
+        tailer.tail();
+        assertThat(lag()).isZero();
+
+        ArgumentCaptor<List<EndpointHit>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(hitRollupService, times(3)).record(chunks.capture());
+        assertThat(chunks.getAllValues().stream().flatMap(List::stream).map(EndpointHit::getUri))
+                .containsExactly(uris(4, 8));
+        verify(hitRollupRepository).advanceTail(5);
+        verify(hitRollupRepository).advanceTail(7);
+        verify(hitRollupRepository).advanceTail(8);
+    }
+
+    @Test
+    void failedChunkIsRolledUpAgainOnNextRun() {
+        when(hitRollupRepository.findTail()).thenReturn(Optional.of(0L));
+        tailer.start();
+        store.saveAll(hits(1, 1));
+        doThrow(new IllegalStateException("connection lost")).doNothing().when(hitRollupService).record(anyList());
+
+        tailer.tail();
+        verify(hitRollupRepository, never()).advanceTail(anyLong());
+
+        tailer.tail();
+        verify(hitRollupService, times(2)).record(anyList());
+        verify(hitRollupRepository).advanceTail(1);
+        verify(hitRollupRepository, never()).startTail(anyLong());
+    }
+
+    private double lag() {
+        return meterRegistry.get("stats.rollups.tail.lag").gauge().value();
+    }
+
+    private List<EndpointHit> hits(int from, int to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(n -> EndpointHit.builder()
+                        .app("ewm-main-service")
+                        .uri("/events/" + n)
+                        .ip("192.168.0." + n)
+                        .timestamp(START.plusMinutes(n))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private String[] uris(int from, int to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(n -> "/events/" + n)
+                .toArray(String[]::new);
+    }
+}
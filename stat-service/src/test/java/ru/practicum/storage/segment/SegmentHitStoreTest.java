@@ -0,0 +1,199 @@
+package ru.practicum.storage.segment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.storage.EndpointHitBatchRepository;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SegmentHitStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void saveAllRollsOverToNewSegments() throws IOException {
+        SegmentHitStore store = open(3, emptyRepository());
+
+        store.saveAll(hits(1, 7));
+
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(store.findAfter(0, 100)).extracting(EndpointHit::getUri)
+                .containsExactly(uris(1, 7));
+        assertThat(store.countHits(START, START.plusDays(1), null))
+                .extracting(ViewStatsDto::getHits)
+                .containsOnly(1L);
+        store.close();
+    }
+
+    @Test
+    void findAfterResumesFromEncodedId() throws IOException {
+        SegmentHitStore store = open(3, emptyRepository());
+        List<EndpointHit> saved = hits(1, 7);
+        store.saveAll(saved);
+
+        assertThat(saved).extracting(EndpointHit::getId)
+                .containsExactly(1L, 2L, 3L, 1L << 32 | 1, 1L << 32 | 2, 1L << 32 | 3, 2L << 32 | 1);
+        assertThat(store.findAfter(2, 2)).extracting(EndpointHit::getUri)
+                .containsExactly("/events/3", "/events/4");
+        assertThat(store.findAfter(3, 1)).extracting(EndpointHit::getId)
+                .containsExactly(1L << 32 | 1);
+        assertThat(store.findAfter(2L << 32 | 1, 10)).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void segmentsSurviveReopen() throws IOException {
+        SegmentHitStore store = open(3, emptyRepository());
+        store.saveAll(hits(1, 5));
+        store.close();
+
+        SegmentHitStore reopened = open(3, emptyRepository());
+        reopened.saveAll(hits(6, 7));
+
+        assertThat(reopened.findAfter(0, 100)).extracting(EndpointHit::getUri)
+                .containsExactly(uris(1, 7));
+        reopened.close();
+    }
+
+    @Test
+    void dictionaryDropsTruncatedTail() throws IOException {
+        Path file = directory.resolve("uris.dict");
+        SegmentDictionary dictionary = new SegmentDictionary(file);
+        dictionary.idOf("/events/1");
+        dictionary.idOf("/events/2");
+        dictionary.close();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND))) {
+            out.writeShort(10);
+            out.writeBytes("/ev");
+        }
+
+        SegmentDictionary recovered = new SegmentDictionary(file);
+        assertThat(recovered.size()).isEqualTo(2);
+        assertThat(recovered.idOf("/events/3")).isEqualTo(2);
+        recovered.close();
+
+        SegmentDictionary reopened = new SegmentDictionary(file);
+        assertThat(reopened.size()).isEqualTo(3);
+        assertThat(reopened.valueOf(2)).isEqualTo("/events/3");
+        reopened.close();
+    }
+
+    @Test
+    void importsJdbcHitsIntoEmptyStoreOnce() throws IOException {
+        EndpointHitBatchRepository repository = repositoryOf(5);
+        SegmentHitStore store = open(2, repository);
+
+        assertThat(store.findAfter(0, 100)).extracting(EndpointHit::getUri)
+                .containsExactly(uris(1, 5));
+        store.close();
+
+        EndpointHitBatchRepository unused = emptyRepository();
+        open(2, unused).close();
+        verify(unused, never()).findMaxId();
+    }
+
+    @Test
+    void importResumesFromRecordedProgress() throws IOException {
+        EndpointHitBatchRepository failing = repositoryOf(5);
+        when(failing.findAfter(2L, 5L, 2)).thenThrow(new IllegalStateException("connection lost"));
+        SegmentHitStore interrupted = new SegmentHitStore(directory.toString(), 2, failing, 2);
+        assertThatThrownBy(interrupted::importJdbcHits).isInstanceOf(IllegalStateException.class);
+        interrupted.saveAll(hits(100, 100));
+        interrupted.close();
+
+        SegmentHitStore store = open(2, repositoryOf(5));
+
+        assertThat(store.findAfter(0, 100)).extracting(EndpointHit::getUri)
+                .containsExactly(uris(1, 5));
+        store.close();
+    }
+
+    @Test
+    void storeWithSegmentsSkipsImport() throws IOException {
+        SegmentHitStore store = new SegmentHitStore(directory.toString(), 2, emptyRepository(), 2);
+        store.saveAll(hits(1, 1));
+        store.close();
+
+        EndpointHitBatchRepository repository = repositoryOf(5);
+        SegmentHitStore reopened = open(2, repository);
+
+        assertThat(reopened.findAfter(0, 100)).hasSize(1);
+        verify(repository, never()).findMaxId();
+        reopened.close();
+    }
+
+    private SegmentHitStore open(int rowsPerSegment, EndpointHitBatchRepository repository) throws IOException {
+        SegmentHitStore store = new SegmentHitStore(directory.toString(), rowsPerSegment, repository, 2);
+        store.importJdbcHits();
+        return store;
+    }
+
+    private EndpointHitBatchRepository emptyRepository() {
+        return mock(EndpointHitBatchRepository.class);
+    }
+
+    private EndpointHitBatchRepository repositoryOf(int count) {
+        EndpointHitBatchRepository repository = mock(EndpointHitBatchRepository.class);
+        when(repository.findMaxId()).thenReturn((long) count);
+        when(repository.findAfter(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            long max = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return LongStream.rangeClosed(after + 1, Math.min(max, after + limit))
+                    .mapToObj(this::hit)
+                    .collect(Collectors.toList());
+        });
+        return repository;
+    }
+
+    private List<EndpointHit> hits(int from, int to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(this::hit)
+                .collect(Collectors.toList());
+    }
+
+    private EndpointHit hit(long n) {
+        return EndpointHit.builder()
+                .id(n)
+                .app("ewm-main-service")
+                .uri("/events/" + n)
+                .ip("192.168.0." + n)
+                .timestamp(START.plusMinutes(n))
+                .build();
+    }
+
+    private String[] uris(int from, int to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(n -> "/events/" + n)
+                .toArray(String[]::new);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".hits"))
+                    .collect(Collectors.toList());
+        }
+    }
+}